@@ -0,0 +1,126 @@
+-- Benchmark queries for the indexes in
+-- services/portfolio-service/src/main/resources/db/migration/V2__create_indexes.sql
+--
+-- PostgresSchemaTest in the service asserts the same plans on a smaller data set
+-- in a Testcontainers or external PostgreSQL; this script is for checking them at scale.
+--
+-- Run against a scratch database that the service has migrated (start it once
+-- with the postgres profile), e.g.
+--   psql -d finflow_bench -v ON_ERROR_STOP=1 -f explain-indexes.sql
+-- It loads 100k users with 20 holdings each, and one user with 5000 for the keyset
+-- scroll, then EXPLAINs each hot query.
+-- The comment above each query names the plan node it should produce; a Seq Scan
+-- or a Sort there means the index is not being used.
+
+BEGIN;
+
+INSERT INTO users (id, email, username, password_hash, created_at, updated_at)
+SELECT gen_random_uuid(), 'user' || n || '@bench.test', 'user' || n, 'x', now(), now()
+FROM generate_series(1, 100000) n;
+
+INSERT INTO portfolios (id, user_id, name, total_value, cash_balance, buying_power,
+                        total_gain_loss, total_cost_basis, created_at, updated_at)
+SELECT gen_random_uuid(), u.id, 'main', (random() * 1000000)::numeric(19,4), 1000, 1000, 0, 0, now(), now()
+FROM users u;
+
+INSERT INTO holdings (id, portfolio_id, user_id, symbol, quantity, average_cost, current_price,
+                      market_value, unrealized_pnl, unrealized_pnl_percent, asset_type, created_at, updated_at)
+SELECT gen_random_uuid(), p.id, p.user_id, 'SYM' || (h * 37 + abs(hashtext(p.id::text)) % 2000) % 2000,
+       10, 100, 100 + h, (10 * (100 + h))::numeric(19,4), (10 * h)::numeric(19,4), h,
+       CASE WHEN h % 5 = 0 THEN 'CRYPTO' ELSE 'STOCK' END,
+       now(), now() - (random() * interval '1 day')
+FROM portfolios p, generate_series(1, 20) h;
+
+INSERT INTO holdings (id, portfolio_id, user_id, symbol, quantity, average_cost, current_price,
+                      market_value, unrealized_pnl, unrealized_pnl_percent, asset_type, created_at, updated_at)
+SELECT gen_random_uuid(), p.id, p.user_id, 'WIDE' || h, 10, 100, 100, 1000, 0, 0, 'STOCK', now(), now()
+FROM (SELECT * FROM portfolios ORDER BY id DESC LIMIT 1) p, generate_series(1, 5000) h;
+
+INSERT INTO external_accounts (id, user_id, platform, account_name, status, sync_enabled,
+                               last_sync_at, token_expires_at, created_at, updated_at)
+SELECT gen_random_uuid(), u.id, 'ALPACA', 'bench',
+       CASE WHEN random() < 0.05 THEN 'CONNECTED' ELSE 'DISCONNECTED' END,
+       random() < 0.8,
+       now() - (random() * interval '7 days'),
+       CASE WHEN random() < 0.3 THEN now() + (random() * interval '30 days') END,
+       now() - (random() * interval '365 days'), now()
+FROM users u;
+
+INSERT INTO portfolio_value_snapshots (portfolio_id, resolution, bucket_start, total_value,
+                                       low_value, high_value, total_gain_loss, samples)
+SELECT p.id, 'DAILY', date_trunc('day', now()) - d * interval '1 day', p.total_value,
+       p.total_value, p.total_value, 0, 1
+FROM (SELECT * FROM portfolios LIMIT 10000) p, generate_series(1, 30) d;
+
+INSERT INTO quotes (symbol, price, observed_at)
+SELECT 'SYM' || n, 100, now() FROM generate_series(0, 1999) n;
+
+COMMIT;
+
+ANALYZE;
+
+\set user_id '(SELECT user_id FROM portfolios ORDER BY id LIMIT 1)'
+\set wide_user_id '(SELECT user_id FROM portfolios ORDER BY id DESC LIMIT 1)'
+
+-- uk_portfolio_user: Index Only Scan using uk_portfolio_user
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.id FROM portfolios p WHERE p.user_id = :user_id;
+
+-- idx_portfolio_total_value: Limit -> Index Scan using idx_portfolio_total_value, no Sort
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM portfolios p ORDER BY p.total_value DESC LIMIT 20;
+
+-- idx_holding_portfolio: Bitmap Index Scan (or Index Only Scan) using idx_holding_portfolio (holdings count of a summary)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM holdings h WHERE h.portfolio_id = (SELECT id FROM portfolios ORDER BY id LIMIT 1);
+
+-- idx_holding_symbol: Index Scan (or Bitmap Index Scan) using idx_holding_symbol (revaluation by symbol)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT h.id, h.quantity, h.average_cost FROM holdings h WHERE h.symbol = 'SYM42';
+
+-- idx_holding_user_symbol: Index Scan using idx_holding_user_symbol, no Sort (keyset scroll)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM holdings h WHERE h.user_id = :wide_user_id AND (h.symbol, h.id) > ('SYM0', '00000000-0000-0000-0000-000000000000')
+ORDER BY h.symbol, h.id LIMIT 20;
+
+-- idx_holding_user_market_value: Limit -> Index Scan using idx_holding_user_market_value, no Sort
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM holdings h WHERE h.user_id = :user_id ORDER BY h.market_value DESC LIMIT 10;
+
+-- idx_holding_user_pnl: Limit -> Index Scan using idx_holding_user_pnl, no Sort
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM holdings h WHERE h.user_id = :user_id ORDER BY h.unrealized_pnl DESC LIMIT 10;
+
+-- idx_external_account_user: Index Scan using idx_external_account_user
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM external_accounts ea WHERE ea.user_id = :user_id AND ea.platform = 'ALPACA';
+
+-- idx_external_account_status_created: Limit -> Index Scan using idx_external_account_status_created, no Sort
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM external_accounts ea WHERE ea.status = 'DISCONNECTED'
+ORDER BY ea.created_at, ea.id LIMIT 20;
+
+-- idx_external_account_ready_to_sync: Index Scan (or Bitmap Index Scan) using
+-- idx_external_account_ready_to_sync, with no filter left on status or sync_enabled
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM external_accounts ea WHERE ea.status = 'CONNECTED' AND ea.sync_enabled = true;
+
+-- idx_external_account_token_expiry: Index Scan (or Bitmap Index Scan) using idx_external_account_token_expiry
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM external_accounts ea WHERE ea.token_expires_at < now() + interval '1 day' AND ea.token_expires_at > now();
+
+-- idx_snapshot_resolution_bucket (V4 partitions the table, so the scan is of the DAILY partition's copy):
+-- Result -> Limit -> Index Only Scan using portfolio_value_snapshots_daily_resolution_bucket_start_idx
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT max(s.bucket_start) FROM portfolio_value_snapshots s WHERE s.resolution = 'DAILY';
+
+-- Primary key of quotes: Index Scan using quotes_pkey (quote cache miss)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT q.price FROM quotes q WHERE q.symbol = 'SYM42';
+
+-- Primary key of portfolio_value_snapshots: Bitmap Index Scan (or Index Scan) using portfolio_value_snapshots_daily_pkey (chart read)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM portfolio_value_snapshots s
+WHERE s.portfolio_id = (SELECT portfolio_id FROM portfolio_value_snapshots LIMIT 1)
+  AND s.resolution = 'DAILY' AND s.bucket_start >= now() - interval '30 days'
+ORDER BY s.bucket_start;
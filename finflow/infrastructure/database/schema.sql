@@ -1,50 +0,0 @@
--- Users table
-CREATE TABLE users (
-    id SERIAL PRIMARY KEY,
-    email VARCHAR(255) UNIQUE NOT NULL,
-    username VARCHAR(100) NOT NULL,
-    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
-);
-
--- Portfolios table (One user can have multiple portfolios)
-CREATE TABLE portfolios (
-    id SERIAL PRIMARY KEY,
-    user_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE,
-    name VARCHAR(255) NOT NULL,
-    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
-);
-
--- Holdings table (A portfolio has many holdings)
-CREATE TABLE holdings (
-    id SERIAL PRIMARY KEY,
-    portfolio_id INTEGER NOT NULL REFERENCES portfolios(id) ON DELETE CASCADE,
-    symbol VARCHAR(10) NOT NULL,
-    quantity DECIMAL(20, 8) NOT NULL,
-    average_cost DECIMAL(20, 8) NOT NULL
-);
-
--- Orders table (Track order lifecycle)
-CREATE TABLE orders (
-    id SERIAL PRIMARY KEY,
-    user_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE,
-    symbol VARCHAR(10) NOT NULL,
-    side VARCHAR(4) NOT NULL CHECK (side IN ('buy', 'sell')),
-    order_type VARCHAR(10) NOT NULL CHECK (order_type IN ('market', 'limit')),
-    quantity DECIMAL(20, 8) NOT NULL,
-    price DECIMAL(20, 8),
-    status VARCHAR(20) NOT NULL DEFAULT 'pending',
-    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
-    filled_at TIMESTAMPTZ
-);
-
--- Transactions table (One order can have multiple transactions - partial fills)
-CREATE TABLE transactions (
-    id SERIAL PRIMARY KEY,
-    order_id INTEGER NOT NULL REFERENCES orders(id) ON DELETE CASCADE,
-    symbol VARCHAR(10) NOT NULL,
-    side VARCHAR(4) NOT NULL CHECK (side IN ('buy', 'sell')),
-    quantity DECIMAL(20, 8) NOT NULL,
-    price DECIMAL(20, 8) NOT NULL,
-    executed_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
-);
@@ -2,7 +2,10 @@ package com.finflow.portfolio.application;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -11,9 +14,11 @@ import com.finflow.portfolio.domain.ExternalAccount;
 import com.finflow.portfolio.domain.ExternalPlatform;
 import com.finflow.portfolio.dto.request.ConnectExternalAccountRequest;
 import com.finflow.portfolio.dto.request.UpdateExternalAccountRequest;
+import com.finflow.portfolio.dto.response.CursorPage;
 import com.finflow.portfolio.dto.response.ExternalAccountResponse;
 import com.finflow.portfolio.exception.ConflictException;
 import com.finflow.portfolio.exception.ResourceNotFoundException;
+import com.finflow.portfolio.infrastructure.batch.BoundedStreamProcessor;
 import com.finflow.portfolio.repository.ExternalAccountRepository;
 import com.finflow.portfolio.repository.UserRepository;
 
@@ -23,10 +28,13 @@ public class ExternalAccountService {
 
     private final ExternalAccountRepository externalAccountRepository;
     private final UserRepository userRepository;
+    private final BoundedStreamProcessor streamProcessor;
 
-    public ExternalAccountService(ExternalAccountRepository externalAccountRepository, UserRepository userRepository) {
+    public ExternalAccountService(ExternalAccountRepository externalAccountRepository, UserRepository userRepository,
+            BoundedStreamProcessor streamProcessor) {
         this.externalAccountRepository = externalAccountRepository;
         this.userRepository = userRepository;
+        this.streamProcessor = streamProcessor;
     }
 
     public ExternalAccountResponse connectAccount(String userId, ConnectExternalAccountRequest request) {
@@ -171,10 +179,22 @@ public class ExternalAccountService {
     }
 
     @Transactional(readOnly = true)
-    public List<ExternalAccountResponse> getAccountsReadyToSync() {
-        List<ExternalAccount> accounts = externalAccountRepository.findAccountsReadyToSync();
-        return accounts.stream()
-                .map(ExternalAccountResponse::from)
-                .toList();
+    public CursorPage<ExternalAccountResponse> getAccountsByStatusAfterCursor(ConnectionStatus status, String cursor, int size) {
+        ScrollPosition position = CursorPage.position(cursor);
+        Window<ExternalAccount> window = externalAccountRepository.findByStatusOrderByCreatedAtAscIdAsc(status, position, CursorPage.limit(size));
+        return CursorPage.from(window, position, ExternalAccountResponse::from);
+    }
+
+    /**
+     * Hands every account ready to sync to the action as a response. Accounts
+     * are streamed and detached a batch at a time, and each response is passed
+     * on as it is built, so neither accumulates however many accounts there are.
+     *
+     * @return number of accounts handed to the action
+     */
+    @Transactional(readOnly = true)
+    public long forEachAccountReadyToSync(Consumer<ExternalAccountResponse> action) {
+        return streamProcessor.forEach(externalAccountRepository.streamAccountsReadyToSync(),
+                account -> action.accept(ExternalAccountResponse.from(account)));
     }
 }
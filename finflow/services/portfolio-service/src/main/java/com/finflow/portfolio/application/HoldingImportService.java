@@ -0,0 +1,238 @@
+package com.finflow.portfolio.application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finflow.portfolio.domain.AssetType;
+import com.finflow.portfolio.domain.Holding;
+import com.finflow.portfolio.domain.HoldingValuation;
+import com.finflow.portfolio.domain.Portfolio;
+import com.finflow.portfolio.dto.request.CreateHoldingRequest;
+import com.finflow.portfolio.dto.response.HoldingImportResponse;
+import com.finflow.portfolio.exception.ResourceNotFoundException;
+import com.finflow.portfolio.infrastructure.importer.HoldingImportReader;
+import com.finflow.portfolio.infrastructure.index.IndexedPosition;
+import com.finflow.portfolio.infrastructure.index.SymbolHoldingIndex;
+import com.finflow.portfolio.infrastructure.kafka.PortfolioEventProducer;
+import com.finflow.portfolio.infrastructure.quote.QuoteCache;
+import com.finflow.portfolio.infrastructure.stream.PortfolioSummaryStream;
+import com.finflow.portfolio.repository.HoldingRepository;
+import com.finflow.portfolio.repository.HoldingTotalsRepository;
+import com.finflow.portfolio.repository.PortfolioRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Bulk import of holdings from an NDJSON or CSV stream, e.g. when onboarding a
+ * user with a brokerage history.
+ *
+ * Rows are parsed incrementally and written a JDBC batch at a time, with the
+ * persistence context flushed and cleared after each batch, so memory stays
+ * flat however large the upload is. The portfolio's cash and aggregates are adjusted once at the end
+ * and a single HOLDINGS_IMPORTED event is published. The import runs in one
+ * transaction: an invalid row or running out of cash rejects the whole file.
+ */
+@Service
+@Transactional
+public class HoldingImportService {
+
+    private static final String IMPORTED_ACTION = "HOLDINGS_IMPORTED";
+    private static final String ALL_SYMBOLS = "*";
+
+    private final PortfolioRepository portfolioRepository;
+    private final HoldingRepository holdingRepository;
+    private final HoldingTotalsRepository holdingTotalsRepository;
+    private final PortfolioEventProducer eventProducer;
+    private final SymbolHoldingIndex symbolIndex;
+    private final PortfolioSummaryStream summaryStream;
+    private final QuoteCache quoteCache;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public HoldingImportService(
+            PortfolioRepository portfolioRepository,
+            HoldingRepository holdingRepository,
+            HoldingTotalsRepository holdingTotalsRepository,
+            PortfolioEventProducer eventProducer,
+            SymbolHoldingIndex symbolIndex,
+            PortfolioSummaryStream summaryStream,
+            QuoteCache quoteCache,
+            ObjectMapper objectMapper,
+            Validator validator,
+            EntityManager entityManager,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}") int batchSize) {
+        this.portfolioRepository = portfolioRepository;
+        this.holdingRepository = holdingRepository;
+        this.holdingTotalsRepository = holdingTotalsRepository;
+        this.eventProducer = eventProducer;
+        this.symbolIndex = symbolIndex;
+        this.summaryStream = summaryStream;
+        this.quoteCache = quoteCache;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    public HoldingImportResponse importHoldings(String userId, InputStream input, HoldingImportReader.Format format) {
+        Portfolio portfolio = portfolioRepository.findByUser_Id(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Portfolio for user", userId));
+        String portfolioId = portfolio.getId();
+        BigDecimal cashBalance = portfolio.getCashBalance();
+
+        // Flushed by hand once per batch; the quote lookup must not flush a half-filled one
+        entityManager.setFlushMode(FlushModeType.COMMIT);
+
+        // Rows for a symbol already held, or repeated in the file, add to that position
+        Map<String, String> holdingIdBySymbol = new HashMap<>();
+        for (IndexedPosition existing : holdingRepository.findIndexedPositionsByPortfolioId(portfolioId)) {
+            holdingIdBySymbol.put(existing.symbol(), existing.holdingId());
+        }
+
+        ImportTotals totals = new ImportTotals();
+        List<CreateHoldingRequest> batch = new ArrayList<>(batchSize);
+        try (HoldingImportReader reader = new HoldingImportReader(input, format, objectMapper)) {
+            CreateHoldingRequest request;
+            while ((request = reader.next()) != null) {
+                validate(request, reader.lineNumber());
+                totals.cost = totals.cost.add(request.getTotalCostBasis());
+                if (totals.cost.compareTo(cashBalance) > 0) {
+                    throw new IllegalStateException("Insufficient cash balance at line " + reader.lineNumber());
+                }
+                batch.add(request);
+                if (batch.size() == batchSize) {
+                    persistBatch(userId, portfolioId, batch, holdingIdBySymbol, totals);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        persistBatch(userId, portfolioId, batch, holdingIdBySymbol, totals);
+
+        if (totals.created + totals.updated == 0) {
+            return new HoldingImportResponse(portfolioId, 0, 0, BigDecimal.ZERO);
+        }
+
+        // Cleared above, so load it again rather than touching the detached copy
+        portfolio = portfolioRepository.findById(portfolioId)
+                .orElseThrow(() -> new ResourceNotFoundException("Portfolio", portfolioId));
+        portfolio.adjustCash(totals.cost.negate());
+        portfolio.applyHoldingDelta(totals.before, totals.after);
+        portfolioRepository.save(portfolio);
+        for (AssetType assetType : totals.afterByType.keySet()) {
+            holdingTotalsRepository.applyHoldingDelta(
+                    userId,
+                    assetType,
+                    totals.createdByType.getOrDefault(assetType, 0),
+                    totals.beforeByType.get(assetType),
+                    totals.afterByType.get(assetType));
+        }
+
+        symbolIndex.reloadPortfolio(portfolioId);
+        summaryStream.markChanged(portfolioId);
+        eventProducer.sendPortfolioUpdated(userId, portfolioId, ALL_SYMBOLS, IMPORTED_ACTION);
+        return new HoldingImportResponse(portfolioId, totals.created, totals.updated, totals.cost);
+    }
+
+    /**
+     * Write one batch of rows, valued at quotes looked up together, then flush
+     * it as JDBC batches and clear the persistence context.
+     */
+    private void persistBatch(
+            String userId,
+            String portfolioId,
+            List<CreateHoldingRequest> batch,
+            Map<String, String> holdingIdBySymbol,
+            ImportTotals totals) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<String, AssetType> assetTypesBySymbol = new HashMap<>();
+        for (CreateHoldingRequest request : batch) {
+            assetTypesBySymbol.put(request.symbol().toUpperCase(), request.assetType());
+        }
+        Map<String, BigDecimal> quotes = quoteCache.pricesFor(assetTypesBySymbol);
+
+        for (CreateHoldingRequest request : batch) {
+            String symbol = request.symbol().toUpperCase();
+            BigDecimal price = quotes.getOrDefault(symbol, request.averageCost());
+            String holdingId = holdingIdBySymbol.get(symbol);
+            if (holdingId != null) {
+                Holding holding = entityManager.find(Holding.class, holdingId);
+                HoldingValuation before = holding.valuation();
+                holding.addToPosition(request.quantity(), request.averageCost());
+                holding.updateMarketValue(price);
+                totals.add(holding.getAssetType(), before, holding.valuation(), 0);
+                totals.updated++;
+            } else {
+                Holding holding = new Holding();
+                holding.setPortfolio(entityManager.getReference(Portfolio.class, portfolioId));
+                holding.setUserId(userId);
+                holding.setSymbol(symbol);
+                holding.setQuantity(request.quantity());
+                holding.setAverageCost(request.averageCost());
+                holding.setAssetType(request.assetType());
+                holding.setExchange(request.exchange());
+                holding.updateMarketValue(price);
+                entityManager.persist(holding);
+                holdingIdBySymbol.put(symbol, holding.getId());
+                totals.add(holding.getAssetType(), HoldingValuation.NONE, holding.valuation(), 1);
+                totals.created++;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void validate(CreateHoldingRequest request, int lineNumber) {
+        Set<ConstraintViolation<CreateHoldingRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
+    // Running totals of the import, applied to the portfolio once at the end
+    private static final class ImportTotals {
+
+        private HoldingValuation before = HoldingValuation.NONE;
+        private HoldingValuation after = HoldingValuation.NONE;
+        // The same per asset type, for the holding totals
+        private final Map<AssetType, HoldingValuation> beforeByType = new EnumMap<>(AssetType.class);
+        private final Map<AssetType, HoldingValuation> afterByType = new EnumMap<>(AssetType.class);
+        private final Map<AssetType, Integer> createdByType = new EnumMap<>(AssetType.class);
+        private BigDecimal cost = BigDecimal.ZERO;
+        private int created;
+        private int updated;
+
+        private void add(AssetType assetType, HoldingValuation holdingBefore, HoldingValuation holdingAfter, int added) {
+            before = before.plus(holdingBefore);
+            after = after.plus(holdingAfter);
+            beforeByType.merge(assetType, holdingBefore, HoldingValuation::plus);
+            afterByType.merge(assetType, holdingAfter, HoldingValuation::plus);
+            createdByType.merge(assetType, added, Integer::sum);
+        }
+    }
+}
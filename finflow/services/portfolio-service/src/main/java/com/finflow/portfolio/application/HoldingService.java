@@ -2,22 +2,37 @@ package com.finflow.portfolio.application;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.finflow.portfolio.domain.AssetType;
 import com.finflow.portfolio.domain.Holding;
+import com.finflow.portfolio.domain.HoldingValuation;
 import com.finflow.portfolio.domain.Portfolio;
+import com.finflow.portfolio.domain.UuidStringJavaType;
 import com.finflow.portfolio.dto.request.CreateHoldingRequest;
 import com.finflow.portfolio.dto.request.UpdateHoldingRequest;
+import com.finflow.portfolio.dto.response.CursorPage;
 import com.finflow.portfolio.dto.response.HoldingResponse;
+import com.finflow.portfolio.dto.response.HoldingTotalsResponse;
 import com.finflow.portfolio.dto.response.PaginatedResponse;
+import com.finflow.portfolio.dto.response.PaginatedResponse.CountMode;
 import com.finflow.portfolio.exception.ResourceNotFoundException;
+import com.finflow.portfolio.infrastructure.index.SymbolHoldingIndex;
 import com.finflow.portfolio.infrastructure.kafka.PortfolioEventProducer;
+import com.finflow.portfolio.infrastructure.quote.QuoteCache;
+import com.finflow.portfolio.infrastructure.stats.RowCountEstimator;
+import com.finflow.portfolio.infrastructure.stream.PortfolioSummaryStream;
 import com.finflow.portfolio.repository.HoldingRepository;
+import com.finflow.portfolio.repository.HoldingTotalsRepository;
 import com.finflow.portfolio.repository.PortfolioRepository;
 
 @Service
@@ -26,15 +41,30 @@ public class HoldingService {
 
     private final HoldingRepository holdingRepository;
     private final PortfolioRepository portfolioRepository;
+    private final HoldingTotalsRepository holdingTotalsRepository;
     private final PortfolioEventProducer eventProducer;
+    private final SymbolHoldingIndex symbolIndex;
+    private final PortfolioSummaryStream summaryStream;
+    private final QuoteCache quoteCache;
+    private final RowCountEstimator rowCountEstimator;
 
     public HoldingService(
             HoldingRepository holdingRepository,
             PortfolioRepository portfolioRepository,
-            PortfolioEventProducer eventProducer) {
+            HoldingTotalsRepository holdingTotalsRepository,
+            PortfolioEventProducer eventProducer,
+            SymbolHoldingIndex symbolIndex,
+            PortfolioSummaryStream summaryStream,
+            QuoteCache quoteCache,
+            RowCountEstimator rowCountEstimator) {
         this.holdingRepository = holdingRepository;
         this.portfolioRepository = portfolioRepository;
+        this.holdingTotalsRepository = holdingTotalsRepository;
         this.eventProducer = eventProducer;
+        this.symbolIndex = symbolIndex;
+        this.summaryStream = summaryStream;
+        this.quoteCache = quoteCache;
+        this.rowCountEstimator = rowCountEstimator;
     }
 
     public HoldingResponse createHolding(String userId, CreateHoldingRequest request) {
@@ -51,12 +81,19 @@ public class HoldingService {
         if (!existingHoldings.isEmpty()) {
             // Add to existing position
             Holding existing = existingHoldings.get(0);
+            HoldingValuation before = existing.valuation();
             existing.addToPosition(request.quantity(), request.averageCost());
+            quoteCache.priceFor(existing.getSymbol(), existing.getAssetType()).ifPresent(existing::updateMarketValue);
 
-            portfolio.setCashBalance(portfolio.getCashBalance().subtract(totalCost));
+            portfolio.adjustCash(totalCost.negate());
+            portfolio.applyHoldingDelta(before, existing.valuation());
             portfolioRepository.save(portfolio);
+            holdingTotalsRepository.applyHoldingDelta(
+                    existing.getUserId(), existing.getAssetType(), 0, before, existing.valuation());
 
             Holding updatedHolding = holdingRepository.save(existing);
+            symbolIndex.upsert(updatedHolding);
+            summaryStream.markChanged(portfolio.getId());
             eventProducer.sendPortfolioUpdated(userId, portfolio.getId(), request.symbol(), "HOLDING_ADDED");
             return HoldingResponse.from(updatedHolding);
         }
@@ -68,18 +105,19 @@ public class HoldingService {
         holding.setSymbol(request.symbol().toUpperCase());
         holding.setQuantity(request.quantity());
         holding.setAverageCost(request.averageCost());
-        holding.setCurrentPrice(request.averageCost());
         holding.setAssetType(request.assetType());
         holding.setExchange(request.exchange());
+        holding.updateMarketValue(quoteCache.priceFor(holding.getSymbol(), holding.getAssetType())
+                .orElse(request.averageCost()));
 
-        BigDecimal marketValue = request.quantity().multiply(request.averageCost());
-        holding.setMarketValue(marketValue);
-        holding.setUnrealizedPnL(BigDecimal.ZERO);
-        holding.setUnrealizedPnLPercent(BigDecimal.ZERO);
-
-        portfolio.setCashBalance(portfolio.getCashBalance().subtract(totalCost));
+        portfolio.adjustCash(totalCost.negate());
+        portfolio.applyHoldingDelta(HoldingValuation.NONE, holding.valuation());
         portfolio.addHolding(holding);
         portfolioRepository.save(portfolio);
+        holdingTotalsRepository.applyHoldingDelta(
+                userId, holding.getAssetType(), 1, HoldingValuation.NONE, holding.valuation());
+        symbolIndex.upsert(holding);
+        summaryStream.markChanged(portfolio.getId());
 
         eventProducer.sendPortfolioUpdated(userId, portfolio.getId(), holding.getSymbol(), "HOLDING_CREATED");
         return HoldingResponse.from(holding);
@@ -87,36 +125,45 @@ public class HoldingService {
 
     @Transactional(readOnly = true)
     public HoldingResponse getHoldingById(String holdingId) {
-        Holding holding = holdingRepository.findById(holdingId)
+        return holdingRepository.findResponseById(holdingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Holding", holdingId));
-        return HoldingResponse.from(holding);
     }
 
     @Transactional(readOnly = true)
     public List<HoldingResponse> getHoldingsByUserId(String userId) {
-        List<Holding> holdings = holdingRepository.findByUserId(userId);
-        return holdings.stream()
-                .map(HoldingResponse::from)
-                .toList();
+        return holdingRepository.findResponsesByUserId(userId);
     }
 
     @Transactional(readOnly = true)
     public List<HoldingResponse> getHoldingsByUserIdAndAssetType(String userId, AssetType assetType) {
-        List<Holding> holdings = holdingRepository.findByUserIdAndAssetType(userId, assetType);
-        return holdings.stream()
-                .map(HoldingResponse::from)
-                .toList();
+        return holdingRepository.findResponsesByUserIdAndAssetType(userId, assetType);
+    }
+
+    @Transactional(readOnly = true)
+    public PaginatedResponse<HoldingResponse> getHoldingsByUserIdPaginated(String userId, Pageable pageable, CountMode count) {
+        if (count == CountMode.EXACT) {
+            Page<HoldingResponse> holdingPage = holdingRepository.findResponsePageByUserId(userId, pageable);
+            return PaginatedResponse.from(holdingPage);
+        }
+        Slice<HoldingResponse> holdingSlice = holdingRepository.findResponseSliceByUserId(userId, pageable);
+        Long approximateTotal = count == CountMode.APPROXIMATE
+                ? rowCountEstimator.estimate("holdings", "user_id = ?", UuidStringJavaType.toUuid(userId))
+                        .orElse(null)
+                : null;
+        return PaginatedResponse.fromSlice(holdingSlice, approximateTotal);
     }
 
     @Transactional(readOnly = true)
-    public PaginatedResponse<HoldingResponse> getHoldingsByUserIdPaginated(String userId, Pageable pageable) {
-        Page<Holding> holdingPage = holdingRepository.findByUserIdPaginated(userId, pageable);
-        return PaginatedResponse.from(holdingPage, HoldingResponse::from);
+    public CursorPage<HoldingResponse> getHoldingsByUserIdAfterCursor(String userId, String cursor, int size) {
+        ScrollPosition position = CursorPage.position(cursor);
+        Window<Holding> window = holdingRepository.findByUserIdOrderBySymbolAscIdAsc(userId, position, CursorPage.limit(size));
+        return CursorPage.from(window, position, HoldingResponse::from);
     }
 
     public HoldingResponse updateHolding(String holdingId, UpdateHoldingRequest request) {
         Holding holding = holdingRepository.findById(holdingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Holding", holdingId));
+        HoldingValuation before = holding.valuation();
 
         if (request.quantity() != null) {
             holding.setQuantity(request.quantity());
@@ -132,11 +179,13 @@ public class HoldingService {
         }
 
         // Recalculate market value if quantity changed but no price update
-        if (request.quantity() != null && request.currentPrice() == null && holding.getCurrentPrice() != null) {
-            holding.updateMarketValue(holding.getCurrentPrice());
+        if (request.quantity() != null && request.currentPrice() == null) {
+            latestPrice(holding).ifPresent(holding::updateMarketValue);
         }
 
+        applyToAggregates(holding, before);
         Holding updatedHolding = holdingRepository.save(holding);
+        symbolIndex.upsert(updatedHolding);
         return HoldingResponse.from(updatedHolding);
     }
 
@@ -148,8 +197,12 @@ public class HoldingService {
         Holding holding = holdingRepository.findById(holdingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Holding", holdingId));
 
+        HoldingValuation before = holding.valuation();
         holding.updateMarketValue(newPrice);
+        applyToAggregates(holding, before);
+
         Holding updatedHolding = holdingRepository.save(holding);
+        symbolIndex.upsert(updatedHolding);
         return HoldingResponse.from(updatedHolding);
     }
 
@@ -161,13 +214,21 @@ public class HoldingService {
         if (portfolio != null) {
             // Return market value to cash balance
             if (holding.getMarketValue() != null) {
-                portfolio.setCashBalance(portfolio.getCashBalance().add(holding.getMarketValue()));
-                portfolioRepository.save(portfolio);
+                portfolio.adjustCash(holding.getMarketValue());
+            }
+            portfolio.applyHoldingDelta(holding.valuation(), HoldingValuation.NONE);
+            portfolioRepository.save(portfolio);
+            // Only an already loaded collection needs the holding taken out; loading it would read every holding
+            if (Hibernate.isInitialized(portfolio.getHoldings())) {
+                portfolio.removeHolding(holding);
             }
-            portfolio.removeHolding(holding);
+            summaryStream.markChanged(portfolio.getId());
         }
+        holdingTotalsRepository.applyHoldingDelta(
+                holding.getUserId(), holding.getAssetType(), -1, holding.valuation(), HoldingValuation.NONE);
 
         holdingRepository.delete(holding);
+        symbolIndex.remove(holding);
     }
 
     public HoldingResponse sellHolding(String holdingId, BigDecimal quantityToSell, BigDecimal sellPrice) {
@@ -186,34 +247,67 @@ public class HoldingService {
         }
 
         BigDecimal proceeds = quantityToSell.multiply(sellPrice);
+        HoldingValuation before = holding.valuation();
 
         Portfolio portfolio = holding.getPortfolio();
         if (portfolio != null) {
-            portfolio.setCashBalance(portfolio.getCashBalance().add(proceeds));
+            portfolio.adjustCash(proceeds);
             portfolioRepository.save(portfolio);
         }
 
         holding.reducePosition(quantityToSell);
 
         if (holding.getQuantity().compareTo(BigDecimal.ZERO) == 0) {
+            if (portfolio != null) {
+                portfolio.applyHoldingDelta(before, HoldingValuation.NONE);
+                summaryStream.markChanged(portfolio.getId());
+            }
+            holdingTotalsRepository.applyHoldingDelta(
+                    holding.getUserId(), holding.getAssetType(), -1, before, HoldingValuation.NONE);
             holdingRepository.delete(holding);
+            symbolIndex.remove(holding);
             return null;
         }
 
         holding.updateMarketValue(sellPrice);
+        applyToAggregates(holding, before);
         Holding updatedHolding = holdingRepository.save(holding);
+        symbolIndex.upsert(updatedHolding);
         return HoldingResponse.from(updatedHolding);
     }
 
+    private Optional<BigDecimal> latestPrice(Holding holding) {
+        return quoteCache.priceFor(holding.getSymbol(), holding.getAssetType())
+                .or(() -> Optional.ofNullable(holding.getCurrentPrice()));
+    }
+
+    // Portfolio is managed, so its delta is flushed with the holding
+    private void applyToAggregates(Holding holding, HoldingValuation before) {
+        if (holding.getPortfolio() != null) {
+            holding.getPortfolio().applyHoldingDelta(before, holding.valuation());
+            summaryStream.markChanged(holding.getPortfolio().getId());
+        }
+        holdingTotalsRepository.applyHoldingDelta(
+                holding.getUserId(), holding.getAssetType(), 0, before, holding.valuation());
+    }
+
+    // The portfolio (one per user) keeps these totals current, so neither sums the holdings
     @Transactional(readOnly = true)
     public BigDecimal getTotalMarketValue(String userId) {
-        BigDecimal total = holdingRepository.getTotalMarketValueByUserId(userId);
-        return total != null ? total : BigDecimal.ZERO;
+        return portfolioRepository.findByUser_Id(userId)
+                .map(portfolio -> portfolio.getTotalValue().subtract(portfolio.getCashBalance()))
+                .orElse(BigDecimal.ZERO);
     }
 
     @Transactional(readOnly = true)
     public BigDecimal getTotalUnrealizedPnL(String userId) {
-        BigDecimal total = holdingRepository.getTotalUnrealizedPnLByUserId(userId);
-        return total != null ? total : BigDecimal.ZERO;
+        return portfolioRepository.findByUser_Id(userId)
+                .map(Portfolio::getTotalGainLoss)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    @Transactional(readOnly = true)
+    public List<HoldingTotalsResponse> getHoldingTotals(String userId) {
+        return holdingTotalsRepository.findResponsesByUserId(userId);
     }
 }
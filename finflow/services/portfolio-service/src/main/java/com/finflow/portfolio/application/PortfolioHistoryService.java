@@ -0,0 +1,219 @@
+package com.finflow.portfolio.application;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.finflow.portfolio.domain.Portfolio;
+import com.finflow.portfolio.domain.SnapshotResolution;
+import com.finflow.portfolio.dto.response.PerformancePointResponse;
+import com.finflow.portfolio.exception.ResourceNotFoundException;
+import com.finflow.portfolio.infrastructure.history.SnapshotPartitions;
+import com.finflow.portfolio.repository.PortfolioRepository;
+import com.finflow.portfolio.repository.PortfolioValueSnapshotRepository;
+
+/**
+ * Portfolio value history. Every portfolio's totals are captured as RAW
+ * snapshots at the snapshot interval and rolled up into 5-minute, hourly and
+ * daily buckets once each bucket has closed. Each resolution is kept for its
+ * own retention window, so history costs a bounded number of rows per
+ * portfolio and a chart reads the finest resolution that covers its range in
+ * at most max-points rows. On PostgreSQL the finer resolutions are
+ * partitioned by day (SnapshotPartitions), and a day past retention is dropped
+ * whole.
+ */
+@Service
+@Transactional
+public class PortfolioHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(PortfolioHistoryService.class);
+
+    private static final int DEFAULT_RANGE_DAYS = 30;
+
+    private final PortfolioValueSnapshotRepository snapshotRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final SnapshotPartitions snapshotPartitions;
+    private final Duration snapshotInterval;
+    private final Map<SnapshotResolution, Duration> retention = new EnumMap<>(SnapshotResolution.class);
+    private final int maxPoints;
+
+    public PortfolioHistoryService(
+            PortfolioValueSnapshotRepository snapshotRepository,
+            PortfolioRepository portfolioRepository,
+            SnapshotPartitions snapshotPartitions,
+            @Value("${app.portfolio.history.snapshot-interval-ms:60000}") long snapshotIntervalMs,
+            @Value("${app.portfolio.history.retention-days.raw:2}") int rawRetentionDays,
+            @Value("${app.portfolio.history.retention-days.five-minutes:14}") int fiveMinuteRetentionDays,
+            @Value("${app.portfolio.history.retention-days.hourly:90}") int hourlyRetentionDays,
+            @Value("${app.portfolio.history.max-points:500}") int maxPoints) {
+        this.snapshotRepository = snapshotRepository;
+        this.portfolioRepository = portfolioRepository;
+        this.snapshotPartitions = snapshotPartitions;
+        this.snapshotInterval = Duration.ofMillis(snapshotIntervalMs);
+        this.retention.put(SnapshotResolution.RAW, Duration.ofDays(rawRetentionDays));
+        this.retention.put(SnapshotResolution.FIVE_MINUTES, Duration.ofDays(fiveMinuteRetentionDays));
+        this.retention.put(SnapshotResolution.HOURLY, Duration.ofDays(hourlyRetentionDays));
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * Chart points of a user's portfolio value between two UTC dates, both
+     * inclusive. With no interval (or "auto") the resolution is picked from the
+     * range; "day", "week" and "month" give one point per period. A range that
+     * includes the present ends with the portfolio's current value.
+     */
+    @Transactional(readOnly = true)
+    public List<PerformancePointResponse> getPerformance(String userId, LocalDate startDate, LocalDate endDate,
+                                                         String interval) {
+        Portfolio portfolio = portfolioRepository.findByUser_Id(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Portfolio for user", userId));
+
+        Instant now = Instant.now();
+        LocalDate end = endDate != null ? endDate : LocalDate.ofInstant(now, ZoneOffset.UTC);
+        LocalDate start = startDate != null ? startDate : end.minusDays(DEFAULT_RANGE_DAYS);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        Instant from = start.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant to = end.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+        List<PerformancePointResponse> points = switch (interval == null ? "auto" : interval.toLowerCase()) {
+            case "auto" -> snapshotRepository.findPoints(portfolio.getId(), resolutionFor(from, to, now), from, to);
+            case "day" -> snapshotRepository.findPoints(portfolio.getId(), SnapshotResolution.DAILY, from, to);
+            case "week" -> perPeriod(
+                    snapshotRepository.findPoints(portfolio.getId(), SnapshotResolution.DAILY, from, to),
+                    date -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+            case "month" -> perPeriod(
+                    snapshotRepository.findPoints(portfolio.getId(), SnapshotResolution.DAILY, from, to),
+                    date -> date.withDayOfMonth(1));
+            default -> throw new IllegalArgumentException("Unsupported interval: " + interval);
+        };
+
+        if (!now.isBefore(from) && now.isBefore(to)) {
+            // The bucket in progress is not rolled up yet
+            List<PerformancePointResponse> withCurrent = new ArrayList<>(points);
+            BigDecimal value = portfolio.getTotalValue();
+            withCurrent.add(new PerformancePointResponse(now, value, value, value,
+                    Optional.ofNullable(portfolio.getTotalGainLoss()).orElse(BigDecimal.ZERO)));
+            return withCurrent;
+        }
+        return points;
+    }
+
+    /**
+     * Capture the current totals of every portfolio in one INSERT ... SELECT.
+     */
+    @Scheduled(fixedRateString = "${app.portfolio.history.snapshot-interval-ms:60000}")
+    public void captureSnapshots() {
+        Instant now = Instant.now();
+        snapshotPartitions.prepare(now);
+        Instant at = SnapshotResolution.bucketStart(now, snapshotInterval);
+        int captured = snapshotRepository.captureRaw(at);
+        log.debug("Captured {} portfolio value snapshots at {}", captured, at);
+    }
+
+    /**
+     * Roll every closed bucket up into the next coarser resolution, finest
+     * first, then drop what fell out of each resolution's retention window.
+     */
+    @Scheduled(
+            fixedDelayString = "${app.portfolio.history.rollup-interval-ms:300000}",
+            initialDelayString = "${app.portfolio.history.rollup-interval-ms:300000}")
+    public void rollUpSnapshots() {
+        Instant now = Instant.now();
+        snapshotPartitions.prepare(now);
+        for (SnapshotResolution target : SnapshotResolution.values()) {
+            if (target.source() != null) {
+                int rolledUp = rollUp(target, now);
+                log.debug("Rolled up {} {} portfolio value snapshots", rolledUp, target);
+            }
+        }
+        for (Map.Entry<SnapshotResolution, Duration> entry : retention.entrySet()) {
+            Instant cutoff = now.minus(entry.getValue());
+            int dropped = snapshotPartitions.dropBefore(entry.getKey(), cutoff);
+            log.debug("Dropped {} expired {} snapshot partitions", dropped, entry.getKey());
+            int expired = snapshotRepository.deleteOlderThan(entry.getKey(), cutoff);
+            log.debug("Removed {} expired {} portfolio value snapshots", expired, entry.getKey());
+        }
+    }
+
+    private int rollUp(SnapshotResolution target, Instant now) {
+        SnapshotResolution source = target.source();
+        Duration width = target.width();
+        Optional<Instant> earliestSource = snapshotRepository.findEarliestBucketStart(source);
+        if (earliestSource.isEmpty()) {
+            return 0;
+        }
+        Instant firstWithData = SnapshotResolution.bucketStart(earliestSource.get(), width);
+        Instant next = snapshotRepository.findLatestBucketStart(target)
+                .map(latest -> latest.plus(width))
+                .filter(bucket -> bucket.isAfter(firstWithData))
+                .orElse(firstWithData);
+        Instant closedBefore = SnapshotResolution.bucketStart(now, width);
+
+        int rows = 0;
+        for (; next.isBefore(closedBefore); next = next.plus(width)) {
+            rows += snapshotRepository.rollUp(source.name(), target.name(), next, next.plus(width));
+        }
+        return rows;
+    }
+
+    /**
+     * The finest resolution still retained at from that covers the range in at
+     * most max-points buckets; DAILY is kept indefinitely.
+     */
+    private SnapshotResolution resolutionFor(Instant from, Instant to, Instant now) {
+        Duration range = Duration.between(from, to);
+        for (SnapshotResolution resolution : SnapshotResolution.values()) {
+            Duration kept = retention.get(resolution);
+            if (kept == null) {
+                return resolution;
+            }
+            Duration width = resolution.width() != null ? resolution.width() : snapshotInterval;
+            if (!from.isBefore(now.minus(kept)) && range.dividedBy(width) <= maxPoints) {
+                return resolution;
+            }
+        }
+        return SnapshotResolution.DAILY;
+    }
+
+    /**
+     * Merge daily points into one per period: the period's last value, lowest
+     * low and highest high, dated at the period start.
+     */
+    private static List<PerformancePointResponse> perPeriod(List<PerformancePointResponse> daily,
+                                                            UnaryOperator<LocalDate> periodStart) {
+        List<PerformancePointResponse> merged = new ArrayList<>();
+        for (PerformancePointResponse point : daily) {
+            Instant period = periodStart.apply(LocalDate.ofInstant(point.date(), ZoneOffset.UTC))
+                    .atStartOfDay(ZoneOffset.UTC).toInstant();
+            int last = merged.size() - 1;
+            if (last >= 0 && merged.get(last).date().equals(period)) {
+                PerformancePointResponse previous = merged.get(last);
+                merged.set(last, new PerformancePointResponse(period, point.value(),
+                        previous.low().min(point.low()), previous.high().max(point.high()), point.gainLoss()));
+            } else {
+                merged.add(new PerformancePointResponse(period, point.value(), point.low(), point.high(),
+                        point.gainLoss()));
+            }
+        }
+        return merged;
+    }
+}
@@ -1,33 +1,67 @@
 package com.finflow.portfolio.application;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.finflow.portfolio.domain.Holding;
+import com.finflow.portfolio.domain.AssetType;
+import com.finflow.portfolio.domain.HoldingValuation;
 import com.finflow.portfolio.domain.Portfolio;
 import com.finflow.portfolio.domain.User;
+import com.finflow.portfolio.domain.UuidStringJavaType;
 import com.finflow.portfolio.dto.request.CreatePortfolioRequest;
 import com.finflow.portfolio.dto.request.UpdatePortfolioRequest;
 import com.finflow.portfolio.dto.response.PortfolioResponse;
 import com.finflow.portfolio.dto.response.PortfolioSummaryResponse;
 import com.finflow.portfolio.exception.ConflictException;
 import com.finflow.portfolio.exception.ResourceNotFoundException;
+import com.finflow.portfolio.infrastructure.index.SymbolHoldingIndex;
+import com.finflow.portfolio.infrastructure.stream.PortfolioSummaryStream;
+import com.finflow.portfolio.repository.HoldingRepository;
+import com.finflow.portfolio.repository.HoldingTotalsRepository;
 import com.finflow.portfolio.repository.PortfolioRepository;
+import com.finflow.portfolio.repository.PortfolioValueSnapshotRepository;
 import com.finflow.portfolio.repository.UserRepository;
 
 @Service
 @Transactional
 public class PortfolioService {
 
+    private static final Logger log = LoggerFactory.getLogger(PortfolioService.class);
+
+    private static final int STALE_REFRESH_CHUNK_SIZE = 1000;
+
     private final PortfolioRepository portfolioRepository;
+    private final HoldingRepository holdingRepository;
+    private final HoldingTotalsRepository holdingTotalsRepository;
+    private final PortfolioValueSnapshotRepository snapshotRepository;
     private final UserRepository userRepository;
-
-    public PortfolioService(PortfolioRepository portfolioRepository, UserRepository userRepository) {
+    private final SymbolHoldingIndex symbolIndex;
+    private final PortfolioSummaryStream summaryStream;
+
+    public PortfolioService(
+            PortfolioRepository portfolioRepository,
+            HoldingRepository holdingRepository,
+            HoldingTotalsRepository holdingTotalsRepository,
+            PortfolioValueSnapshotRepository snapshotRepository,
+            UserRepository userRepository,
+            SymbolHoldingIndex symbolIndex,
+            PortfolioSummaryStream summaryStream) {
         this.portfolioRepository = portfolioRepository;
+        this.holdingRepository = holdingRepository;
+        this.holdingTotalsRepository = holdingTotalsRepository;
+        this.snapshotRepository = snapshotRepository;
         this.userRepository = userRepository;
+        this.symbolIndex = symbolIndex;
+        this.summaryStream = summaryStream;
     }
 
     public PortfolioResponse createPortfolio(String userId, CreatePortfolioRequest request) {
@@ -44,37 +78,42 @@ public class PortfolioService {
         portfolio.setCashBalance(request.getInitialCashBalanceOrDefault());
         portfolio.setBuyingPower(request.getInitialCashBalanceOrDefault());
         portfolio.setTotalValue(request.getInitialCashBalanceOrDefault());
+        portfolio.captureDailyClose();
 
         Portfolio savedPortfolio = portfolioRepository.save(portfolio);
-        return PortfolioResponse.from(savedPortfolio);
+        holdingTotalsRepository.insertEmpty(userId);
+        return PortfolioResponse.from(savedPortfolio, 0);
     }
 
     @Transactional(readOnly = true)
     public PortfolioResponse getPortfolioById(String portfolioId) {
         Portfolio portfolio = portfolioRepository.findById(portfolioId)
                 .orElseThrow(() -> new ResourceNotFoundException("Portfolio", portfolioId));
-        return PortfolioResponse.from(portfolio);
+        return toResponse(portfolio);
     }
 
     @Transactional(readOnly = true)
     public PortfolioResponse getPortfolioByUserId(String userId) {
         Portfolio portfolio = portfolioRepository.findByUser_Id(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Portfolio for user", userId));
-        return PortfolioResponse.from(portfolio);
+        return toResponse(portfolio);
     }
 
+    /**
+     * The holdings are selected straight into responses, so the portfolio's
+     * collection is never loaded.
+     */
     @Transactional(readOnly = true)
     public PortfolioResponse getPortfolioWithHoldings(String userId) {
-        Portfolio portfolio = portfolioRepository.findByUserIdWithHoldings(userId)
+        Portfolio portfolio = portfolioRepository.findByUser_Id(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Portfolio for user", userId));
-        return PortfolioResponse.fromWithHoldings(portfolio);
+        return PortfolioResponse.fromWithHoldings(portfolio, holdingRepository.findResponsesByUserId(userId));
     }
 
     @Transactional(readOnly = true)
     public PortfolioSummaryResponse getPortfolioSummary(String userId) {
-        Portfolio portfolio = portfolioRepository.findByUser_Id(userId)
+        return portfolioRepository.findSummaryByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Portfolio for user", userId));
-        return PortfolioSummaryResponse.from(portfolio);
     }
 
     public PortfolioResponse updatePortfolio(String portfolioId, UpdatePortfolioRequest request) {
@@ -85,21 +124,30 @@ public class PortfolioService {
             portfolio.setName(request.name());
         }
         if (request.cashBalance() != null) {
-            portfolio.setCashBalance(request.cashBalance());
+            // A new balance is money moved in or out: total value, buying power and the close baseline follow it
+            portfolio.recordCashFlow(request.cashBalance().subtract(portfolio.getCashBalance()));
         }
         if (request.buyingPower() != null) {
             portfolio.setBuyingPower(request.buyingPower());
         }
 
         Portfolio updatedPortfolio = portfolioRepository.save(portfolio);
-        return PortfolioResponse.from(updatedPortfolio);
+        summaryStream.markChanged(portfolioId);
+        return toResponse(updatedPortfolio);
     }
 
+    /**
+     * Delete a portfolio with one DELETE per table. Holdings go in bulk before the
+     * portfolio is removed, so its cascade finds none to load and delete one by one.
+     */
     public void deletePortfolio(String portfolioId) {
-        if (!portfolioRepository.existsById(portfolioId)) {
-            throw new ResourceNotFoundException("Portfolio", portfolioId);
-        }
-        portfolioRepository.deleteById(portfolioId);
+        Portfolio portfolio = portfolioRepository.findById(portfolioId)
+                .orElseThrow(() -> new ResourceNotFoundException("Portfolio", portfolioId));
+        holdingRepository.deleteByPortfolio_Id(portfolioId);
+        holdingTotalsRepository.deleteByUserId(portfolio.getUser().getId());
+        snapshotRepository.deleteByPortfolioId(portfolioId);
+        portfolioRepository.delete(portfolio);
+        symbolIndex.removePortfolio(portfolioId);
     }
 
     public PortfolioResponse depositCash(String portfolioId, BigDecimal amount) {
@@ -110,12 +158,11 @@ public class PortfolioService {
         Portfolio portfolio = portfolioRepository.findById(portfolioId)
                 .orElseThrow(() -> new ResourceNotFoundException("Portfolio", portfolioId));
 
-        portfolio.setCashBalance(portfolio.getCashBalance().add(amount));
-        portfolio.setBuyingPower(portfolio.getBuyingPower().add(amount));
-        portfolio.setTotalValue(portfolio.getTotalValue().add(amount));
+        portfolio.recordCashFlow(amount);
 
         Portfolio updatedPortfolio = portfolioRepository.save(portfolio);
-        return PortfolioResponse.from(updatedPortfolio);
+        summaryStream.markChanged(portfolioId);
+        return toResponse(updatedPortfolio);
     }
 
     public PortfolioResponse withdrawCash(String portfolioId, BigDecimal amount) {
@@ -130,48 +177,108 @@ public class PortfolioService {
             throw new IllegalStateException("Insufficient cash balance");
         }
 
-        portfolio.setCashBalance(portfolio.getCashBalance().subtract(amount));
-        portfolio.setBuyingPower(portfolio.getBuyingPower().subtract(amount));
-        portfolio.setTotalValue(portfolio.getTotalValue().subtract(amount));
+        portfolio.recordCashFlow(amount.negate());
 
         Portfolio updatedPortfolio = portfolioRepository.save(portfolio);
-        return PortfolioResponse.from(updatedPortfolio);
+        summaryStream.markChanged(portfolioId);
+        return toResponse(updatedPortfolio);
     }
 
+    /**
+     * Rebuild a portfolio's aggregates from its holdings, repricing each holding
+     * at the latest quote. Holding changes keep the aggregates current through
+     * deltas, so this is only needed to repair drift. The holdings are repriced
+     * and summed in the database, so the statements run do not grow with them.
+     */
     public PortfolioResponse recalculatePortfolioValue(String portfolioId) {
         Portfolio portfolio = portfolioRepository.findById(portfolioId)
                 .orElseThrow(() -> new ResourceNotFoundException("Portfolio", portfolioId));
 
-        BigDecimal holdingsValue = portfolio.getHoldings().stream()
-                .map(Holding::getMarketValue)
-                .filter(v -> v != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalValue = portfolio.getCashBalance().add(holdingsValue);
-        portfolio.setTotalValue(totalValue);
+        // Quotes are written to the quotes table with every revaluation, so it holds the latest prices
+        if (holdingRepository.revalueByPortfolioAtQuotes(UuidStringJavaType.toUuid(portfolioId)) > 0) {
+            symbolIndex.reloadPortfolio(portfolioId);
+        }
+        HoldingValuation holdings = holdingRepository.sumValuationByPortfolioId(portfolioId);
+        BigDecimal totalGainLoss = holdings.unrealizedPnL();
+        BigDecimal totalCostBasis = holdings.costBasis();
 
-        BigDecimal totalGainLoss = portfolio.getHoldings().stream()
-                .map(Holding::getUnrealizedPnL)
-                .filter(v -> v != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        portfolio.setTotalValue(portfolio.getCashBalance().add(holdings.marketValue()));
         portfolio.setTotalGainLoss(totalGainLoss);
+        portfolio.setTotalCostBasis(totalCostBasis);
+        portfolio.setTotalGainLossPercent(Portfolio.gainLossPercent(totalGainLoss, totalCostBasis));
+        portfolio.refreshDailyChange();
 
-        BigDecimal totalCostBasis = portfolio.getHoldings().stream()
-                .map(h -> h.getQuantity().multiply(h.getAverageCost()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Portfolio updatedPortfolio = portfolioRepository.save(portfolio);
+        holdingTotalsRepository.refreshForUsers(List.of(UuidStringJavaType.toUuid(portfolio.getUser().getId())));
+        summaryStream.markChanged(portfolioId);
+        return toResponse(updatedPortfolio);
+    }
 
-        if (totalCostBasis.compareTo(BigDecimal.ZERO) > 0) {
-            portfolio.setTotalGainLossPercent(
-                    totalGainLoss.divide(totalCostBasis, 4, RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100)));
+    /**
+     * Periodic consistency check of the delta-maintained aggregates. Portfolios
+     * and holding totals that disagree with their holdings are recomputed in one
+     * UPDATE each; users missing holding totals rows get them first.
+     */
+    @Scheduled(
+            fixedDelayString = "${app.portfolio.aggregates.verify-interval-ms:3600000}",
+            initialDelayString = "${app.portfolio.aggregates.verify-interval-ms:3600000}")
+    public void verifyAggregates() {
+        verifyHoldingTotals();
+
+        List<UUID> staleIds = portfolioRepository.findIdsWithStaleTotals();
+        if (staleIds.isEmpty()) {
+            return;
         }
 
-        Portfolio updatedPortfolio = portfolioRepository.save(portfolio);
-        return PortfolioResponse.from(updatedPortfolio);
+        int refreshed = 0;
+        for (int from = 0; from < staleIds.size(); from += STALE_REFRESH_CHUNK_SIZE) {
+            refreshed += portfolioRepository.refreshTotalsForPortfolios(
+                    staleIds.subList(from, Math.min(from + STALE_REFRESH_CHUNK_SIZE, staleIds.size())));
+        }
+        summaryStream.markChanged(staleIds.stream().map(UUID::toString).toList());
+        log.warn("Recomputed aggregates of {} portfolios that drifted from their holdings", refreshed);
+    }
+
+    private void verifyHoldingTotals() {
+        List<UUID> missingIds = holdingTotalsRepository.findUserIdsWithMissingTotals(AssetType.values().length);
+        for (UUID userId : missingIds) {
+            holdingTotalsRepository.deleteByUserId(userId.toString());
+            holdingTotalsRepository.insertEmpty(userId.toString());
+        }
+
+        Set<UUID> staleIds = new LinkedHashSet<>(missingIds);
+        staleIds.addAll(holdingTotalsRepository.findUserIdsWithStaleTotals());
+        if (staleIds.isEmpty()) {
+            return;
+        }
+        List<UUID> userIds = List.copyOf(staleIds);
+        for (int from = 0; from < userIds.size(); from += STALE_REFRESH_CHUNK_SIZE) {
+            holdingTotalsRepository.refreshForUsers(
+                    userIds.subList(from, Math.min(from + STALE_REFRESH_CHUNK_SIZE, userIds.size())));
+        }
+        log.warn("Recomputed holding totals of {} users that drifted from their holdings", userIds.size());
+    }
+
+    /**
+     * End-of-day job: the current total value of every portfolio becomes the
+     * baseline the next day's change is measured against, in one UPDATE.
+     */
+    @Scheduled(
+            cron = "${app.portfolio.daily-close.cron:0 5 16 * * MON-FRI}",
+            zone = "${app.portfolio.daily-close.zone:America/New_York}")
+    public void captureDailyClose() {
+        int captured = portfolioRepository.captureDailyClose();
+        summaryStream.markAllChanged();
+        log.info("Captured daily close for {} portfolios", captured);
     }
 
     @Transactional(readOnly = true)
     public boolean existsByUserId(String userId) {
         return portfolioRepository.existsByUser_Id(userId);
     }
+
+    // Counted rather than read off the holdings collection, which would load every holding
+    private PortfolioResponse toResponse(Portfolio portfolio) {
+        return PortfolioResponse.from(portfolio, holdingRepository.countByPortfolio_Id(portfolio.getId()));
+    }
 }
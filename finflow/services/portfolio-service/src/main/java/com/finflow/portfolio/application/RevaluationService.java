@@ -0,0 +1,472 @@
+package com.finflow.portfolio.application;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.finflow.portfolio.domain.AssetType;
+import com.finflow.portfolio.domain.Portfolio;
+import com.finflow.portfolio.domain.UuidStringJavaType;
+import com.finflow.portfolio.domain.ValuationKernel;
+import com.finflow.portfolio.dto.response.PriceBatchResponse;
+import com.finflow.portfolio.infrastructure.index.IndexedPosition;
+import com.finflow.portfolio.infrastructure.index.SymbolHoldingIndex;
+import com.finflow.portfolio.infrastructure.quote.QuoteCache;
+import com.finflow.portfolio.infrastructure.stream.PortfolioSummaryStream;
+import com.finflow.portfolio.repository.HoldingRepository;
+import com.finflow.portfolio.repository.HoldingTotalsRepository;
+import com.finflow.portfolio.repository.PortfolioRepository;
+import com.finflow.portfolio.repository.QuoteRepository;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Set-based repricing of holdings. Each symbol is revalued with a single UPDATE
+ * instead of loading and saving every holding individually.
+ *
+ * Once the {@link SymbolHoldingIndex} is built, symbols nobody holds are skipped
+ * without touching the database, and the change in market value of every
+ * position is computed in memory and applied to its portfolio as a delta.
+ * Symbols the index cannot account for fall back to recomputing the affected
+ * portfolios from their holdings.
+ */
+@Service
+@Transactional
+public class RevaluationService {
+
+    // Keeps the IN (...) list of the portfolio refresh well below driver parameter limits
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+    private static final int SYMBOL_LOCK_STRIPES = 64;
+
+    private static final String UPDATE_HOLDING_VALUATION_SQL =
+            "UPDATE holdings SET current_price = ?, market_value = ?, unrealized_pnl = ?, "
+            + "unrealized_pnl_percent = ?, updated_at = ? WHERE id = ? AND quantity = ? AND average_cost = ?";
+
+    // Applies a change in holdings market value to a portfolio's aggregates without reading its holdings;
+    // every ? but the last two is the delta. Sent through JDBC because a JPQL bulk update would evict the
+    // whole Portfolio cache region and the portfolio.by-user query cache on every tick
+    private static final String APPLY_PORTFOLIO_VALUE_DELTA_SQL =
+            "UPDATE portfolios SET total_value = total_value + ?, "
+            + "total_gain_loss = COALESCE(total_gain_loss, 0) + ?, "
+            + "total_gain_loss_percent = CASE WHEN total_cost_basis > 0 "
+            + "THEN ROUND((COALESCE(total_gain_loss, 0) + ?) / total_cost_basis, 4) * 100 ELSE 0 END, "
+            + "daily_change = CASE WHEN previous_close_value IS NULL THEN daily_change "
+            + "ELSE total_value + ? - previous_close_value END, "
+            + "daily_change_percent = CASE WHEN previous_close_value IS NULL THEN daily_change_percent "
+            + "WHEN previous_close_value > 0 "
+            + "THEN ROUND((total_value + ? - previous_close_value) / previous_close_value, 4) * 100 ELSE 0 END, "
+            + "updated_at = ? WHERE id = ?";
+
+    // Same as HoldingTotalsRepository.applyValueDelta
+    private static final String APPLY_TOTALS_VALUE_DELTA_SQL =
+            "UPDATE holding_totals SET market_value = market_value + ?, unrealized_pnl = unrealized_pnl + ? "
+            + "WHERE asset_type = ? AND user_id = (SELECT p.user_id FROM portfolios p WHERE p.id = ?)";
+
+    private final HoldingRepository holdingRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final HoldingTotalsRepository holdingTotalsRepository;
+    private final SymbolHoldingIndex symbolIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final PortfolioSummaryStream summaryStream;
+    private final QuoteCache quoteCache;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // Held per symbol until the revaluing transaction completes; see lockSymbols
+    private final ReentrantLock[] symbolLocks = new ReentrantLock[SYMBOL_LOCK_STRIPES];
+
+    public RevaluationService(
+            HoldingRepository holdingRepository,
+            PortfolioRepository portfolioRepository,
+            HoldingTotalsRepository holdingTotalsRepository,
+            SymbolHoldingIndex symbolIndex,
+            JdbcTemplate jdbcTemplate,
+            PortfolioSummaryStream summaryStream,
+            QuoteCache quoteCache,
+            EntityManagerFactory entityManagerFactory) {
+        this.holdingRepository = holdingRepository;
+        this.portfolioRepository = portfolioRepository;
+        this.holdingTotalsRepository = holdingTotalsRepository;
+        this.symbolIndex = symbolIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.summaryStream = summaryStream;
+        this.quoteCache = quoteCache;
+        this.entityManagerFactory = entityManagerFactory;
+        for (int i = 0; i < symbolLocks.length; i++) {
+            symbolLocks[i] = new ReentrantLock();
+        }
+    }
+
+    public PriceBatchResponse revalue(Map<String, BigDecimal> pricesBySymbol) {
+        for (Map.Entry<String, BigDecimal> entry : pricesBySymbol.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("Price must be positive for symbol " + entry.getKey());
+            }
+        }
+
+        lockSymbols(pricesBySymbol.keySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // Read once so a rebuild finishing mid-batch cannot mix both strategies
+        boolean indexed = symbolIndex.isReady();
+
+        Map<String, BigDecimal> quotes = new HashMap<>();
+        Map<String, Long> valueDeltaByPortfolio = new HashMap<>();
+        Map<TotalsKey, Long> valueDeltaByTotals = new HashMap<>();
+        List<String> unindexedSymbols = new ArrayList<>();
+        int symbolsRevalued = 0;
+        int holdingsRevalued = 0;
+        for (Map.Entry<String, BigDecimal> entry : pricesBySymbol.entrySet()) {
+            String symbol = entry.getKey();
+            // Round to the column scale up front so the stored price and the values derived from it agree
+            BigDecimal price = entry.getValue().setScale(ValuationKernel.PRICE_SCALE, RoundingMode.HALF_UP);
+            // Quoted even if nobody holds the symbol yet, so a later buy is valued at market
+            quotes.put(symbol, price);
+            if (indexed && !symbolIndex.containsSymbol(symbol)) {
+                continue;
+            }
+            int updated = holdingRepository.revalueBySymbol(symbol, price);
+            if (updated == 0) {
+                continue;
+            }
+            symbolsRevalued++;
+            holdingsRevalued += updated;
+
+            if (!indexed) {
+                unindexedSymbols.add(symbol);
+                continue;
+            }
+            // A holding committed after the index snapshot shows up as a count mismatch
+            Collection<IndexedPosition> positions = symbolIndex.positionsFor(symbol);
+            List<RepricedPosition> repriced = repricePositions(price, positions);
+            if (repriced != null) {
+                recordInIndex(symbol, repriced);
+            }
+            if (repriced != null && positions.size() == updated) {
+                mergeValueDeltas(repriced, valueDeltaByPortfolio, valueDeltaByTotals);
+            } else {
+                unindexedSymbols.add(symbol);
+            }
+        }
+
+        int portfoliosRefreshed = applyPortfolioValueDeltas(valueDeltaByPortfolio, now);
+        valueDeltaByTotals.forEach((key, delta) -> {
+            if (delta != 0) {
+                holdingTotalsRepository.applyValueDelta(
+                        key.portfolioId(),
+                        key.assetType(),
+                        ValuationKernel.toDecimal(delta, ValuationKernel.VALUE_SCALE));
+            }
+        });
+        // Runs last so a full recompute wins over a delta applied to the same portfolio
+        portfoliosRefreshed += refreshInChunks(unindexedSymbols, portfolioRepository::refreshTotalsForSymbols);
+        refreshInChunks(unindexedSymbols, holdingTotalsRepository::refreshForSymbols);
+        storeQuotes(quotes, now);
+        notifySubscribers(valueDeltaByPortfolio.keySet(), unindexedSymbols);
+
+        return new PriceBatchResponse(
+                pricesBySymbol.size(),
+                symbolsRevalued,
+                holdingsRevalued,
+                portfoliosRefreshed);
+    }
+
+    /**
+     * Apply prices drained from the write-behind buffer. Holdings are written as
+     * one JDBC batch of updates by ID, portfolio and holding totals deltas as two
+     * more, all computed from the symbol index, in one transaction so the database
+     * is consistent after every flush.
+     *
+     * Each holding is only written if its quantity and average cost still match
+     * the index. A sell or update that committed after the index was read makes
+     * its row miss; that symbol is then repriced from the stored quantities by
+     * {@link HoldingRepository#revalueBySymbol}, its portfolios are recomputed
+     * and its positions are reloaded into the index.
+     *
+     * Positions that reach the index only after the flush started are repriced
+     * by the next tick for their symbol; the aggregate consistency check covers
+     * the portfolio side of that gap.
+     *
+     * @return number of holdings written
+     */
+    public int applyBufferedPrices(Map<String, BigDecimal> pricesBySymbol) {
+        lockSymbols(pricesBySymbol.keySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Map<String, BigDecimal> quotes = new HashMap<>();
+        Map<String, List<RepricedPosition>> repricedBySymbol = new HashMap<>();
+        List<Object[]> holdingRows = new ArrayList<>();
+        List<String> holdingRowSymbols = new ArrayList<>();
+        List<String> unindexedSymbols = new ArrayList<>();
+        int written = 0;
+        for (Map.Entry<String, BigDecimal> entry : pricesBySymbol.entrySet()) {
+            String symbol = entry.getKey();
+            BigDecimal price = entry.getValue().setScale(ValuationKernel.PRICE_SCALE, RoundingMode.HALF_UP);
+            quotes.put(symbol, price);
+            List<RepricedPosition> repriced = repricePositions(price, symbolIndex.positionsFor(symbol));
+            if (repriced == null) {
+                written += holdingRepository.revalueBySymbol(symbol, price);
+                unindexedSymbols.add(symbol);
+                continue;
+            }
+            repricedBySymbol.put(symbol, repriced);
+            for (RepricedPosition position : repriced) {
+                holdingRows.add(new Object[] {
+                    price,
+                    ValuationKernel.toDecimal(position.marketValue(), ValuationKernel.VALUE_SCALE),
+                    ValuationKernel.toDecimal(position.unrealizedPnL(), ValuationKernel.VALUE_SCALE),
+                    position.unrealizedPnLPercent(),
+                    now,
+                    UuidStringJavaType.toUuid(position.holdingId()),
+                    ValuationKernel.toDecimal(position.quantity(), ValuationKernel.QUANTITY_SCALE),
+                    ValuationKernel.toDecimal(position.averageCost(), ValuationKernel.PRICE_SCALE)
+                });
+                holdingRowSymbols.add(symbol);
+            }
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_HOLDING_VALUATION_SQL, holdingRows);
+        Set<String> staleSymbols = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                staleSymbols.add(holdingRowSymbols.get(i));
+            }
+        }
+
+        Map<String, Long> valueDeltaByPortfolio = new HashMap<>();
+        Map<TotalsKey, Long> valueDeltaByTotals = new HashMap<>();
+        for (Map.Entry<String, List<RepricedPosition>> entry : repricedBySymbol.entrySet()) {
+            String symbol = entry.getKey();
+            if (staleSymbols.contains(symbol)) {
+                // Rows already written at the index's quantities are rewritten here from the stored ones
+                written += holdingRepository.revalueBySymbol(symbol, quotes.get(symbol));
+                symbolIndex.reloadSymbol(symbol);
+                unindexedSymbols.add(symbol);
+            } else {
+                recordInIndex(symbol, entry.getValue());
+                mergeValueDeltas(entry.getValue(), valueDeltaByPortfolio, valueDeltaByTotals);
+                written += entry.getValue().size();
+            }
+        }
+
+        List<Object[]> totalsRows = new ArrayList<>(valueDeltaByTotals.size());
+        valueDeltaByTotals.forEach((key, delta) -> {
+            if (delta != 0) {
+                BigDecimal amount = ValuationKernel.toDecimal(delta, ValuationKernel.VALUE_SCALE);
+                totalsRows.add(new Object[] {
+                    amount, amount, key.assetType().name(), UuidStringJavaType.toUuid(key.portfolioId())
+                });
+            }
+        });
+
+        applyPortfolioValueDeltas(valueDeltaByPortfolio, now);
+        jdbcTemplate.batchUpdate(APPLY_TOTALS_VALUE_DELTA_SQL, totalsRows);
+        refreshInChunks(unindexedSymbols, portfolioRepository::refreshTotalsForSymbols);
+        refreshInChunks(unindexedSymbols, holdingTotalsRepository::refreshForSymbols);
+        storeQuotes(quotes, now);
+        notifySubscribers(valueDeltaByPortfolio.keySet(), unindexedSymbols);
+        return written;
+    }
+
+    /**
+     * Value every indexed position of a symbol at a price with the kernel.
+     *
+     * @return the repriced positions, or null if a value overflowed the kernel
+     *         (the index is then repaired by its next verification)
+     */
+    private static List<RepricedPosition> repricePositions(BigDecimal price, Collection<IndexedPosition> positions) {
+        List<RepricedPosition> repriced = new ArrayList<>(positions.size());
+        try {
+            long priceUnits = ValuationKernel.toUnits(price, ValuationKernel.PRICE_SCALE);
+            for (IndexedPosition position : positions) {
+                long marketValue = ValuationKernel.value(position.quantity(), priceUnits);
+                long costBasis = ValuationKernel.value(position.quantity(), position.averageCost());
+                long pnl = Math.subtractExact(marketValue, costBasis);
+                BigDecimal pnlPercent = costBasis != 0
+                        ? ValuationKernel.toDecimal(ValuationKernel.percentOf(pnl, costBasis), ValuationKernel.VALUE_SCALE)
+                        : BigDecimal.ZERO;
+                repriced.add(new RepricedPosition(
+                        position.holdingId(),
+                        position.portfolioId(),
+                        position.assetType(),
+                        position.quantity(),
+                        position.averageCost(),
+                        marketValue,
+                        pnl,
+                        pnlPercent,
+                        Math.subtractExact(marketValue, position.marketValue())));
+            }
+        } catch (ArithmeticException overflow) {
+            return null;
+        }
+        return repriced;
+    }
+
+    // Record the new market values in the index once the transaction commits
+    private void recordInIndex(String symbol, List<RepricedPosition> repriced) {
+        Map<String, Long> marketValues = new HashMap<>(repriced.size());
+        for (RepricedPosition position : repriced) {
+            marketValues.put(position.holdingId(), position.marketValue());
+        }
+        symbolIndex.reprice(symbol, marketValues);
+    }
+
+    /**
+     * Take the locks of the given symbols until the current transaction
+     * completes. Deltas are computed from the market values in the symbol
+     * index, which are only updated after commit; a REST batch, the tick
+     * consumer and a write-behind flush revaluing the same symbol at once would
+     * otherwise each apply a delta from the same old value and count the change
+     * twice. Stripes are taken in index order so batches cannot deadlock.
+     */
+    private void lockSymbols(Collection<String> symbols) {
+        int[] stripes = symbols.stream()
+                .mapToInt(symbol -> Math.floorMod(symbol.hashCode(), SYMBOL_LOCK_STRIPES))
+                .distinct()
+                .sorted()
+                .toArray();
+        for (int stripe : stripes) {
+            symbolLocks[stripe].lock();
+        }
+        Runnable unlock = () -> {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                symbolLocks[stripes[i]].unlock();
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            unlock.run();
+            throw new IllegalStateException("Revaluation must run in a transaction");
+        }
+        // Completion callbacks run after the index has recorded this revaluation's market values
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock.run();
+            }
+        });
+    }
+
+    /**
+     * Record feed prices as the symbols' quotes, in the quotes table and, once
+     * the transaction commits, in the quote cache.
+     */
+    private void storeQuotes(Map<String, BigDecimal> quotes, Timestamp now) {
+        List<Object[]> quoteRows = new ArrayList<>(quotes.size());
+        quotes.forEach((symbol, price) -> quoteRows.add(new Object[] { symbol, price, now }));
+        jdbcTemplate.batchUpdate(QuoteRepository.UPSERT_SQL, quoteRows);
+        quoteCache.putAll(quotes);
+    }
+
+    /**
+     * Apply market value deltas to their portfolios as one JDBC batch.
+     *
+     * @return number of portfolios updated
+     */
+    private int applyPortfolioValueDeltas(Map<String, Long> valueDeltaByPortfolio, Timestamp now) {
+        List<Object[]> portfolioRows = new ArrayList<>(valueDeltaByPortfolio.size());
+        List<String> portfolioIds = new ArrayList<>(valueDeltaByPortfolio.size());
+        valueDeltaByPortfolio.forEach((portfolioId, delta) -> {
+            if (delta != 0) {
+                BigDecimal amount = ValuationKernel.toDecimal(delta, ValuationKernel.VALUE_SCALE);
+                portfolioRows.add(new Object[] {
+                    amount, amount, amount, amount, amount, now, UuidStringJavaType.toUuid(portfolioId)
+                });
+                portfolioIds.add(portfolioId);
+            }
+        });
+        if (portfolioRows.isEmpty()) {
+            return 0;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(APPLY_PORTFOLIO_VALUE_DELTA_SQL, portfolioRows);
+        evictCachedPortfolios(portfolioIds);
+        return updatedRows(counts);
+    }
+
+    // Drivers may report a batched statement as executed without a row count
+    private static int updatedRows(int[] counts) {
+        int updated = 0;
+        for (int count : counts) {
+            updated += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+        }
+        return updated;
+    }
+
+    // The JDBC batch bypasses Hibernate, so the second-level cache would keep serving the old totals
+    private void evictCachedPortfolios(Collection<String> portfolioIds) {
+        Cache cache = entityManagerFactory.getCache();
+        afterCommit(() -> portfolioIds.forEach(portfolioId -> cache.evict(Portfolio.class, portfolioId)));
+    }
+
+    // Portfolios refreshed by symbol are not known here; pushes skip the unchanged ones
+    private void notifySubscribers(Collection<String> portfolioIds, List<String> unindexedSymbols) {
+        if (unindexedSymbols.isEmpty()) {
+            summaryStream.markChanged(portfolioIds);
+        } else {
+            summaryStream.markAllChanged();
+        }
+    }
+
+    private static void mergeValueDeltas(
+            List<RepricedPosition> repriced,
+            Map<String, Long> valueDeltaByPortfolio,
+            Map<TotalsKey, Long> valueDeltaByTotals) {
+        for (RepricedPosition position : repriced) {
+            valueDeltaByPortfolio.merge(position.portfolioId(), position.valueDelta(), Long::sum);
+            valueDeltaByTotals.merge(
+                    new TotalsKey(position.portfolioId(), position.assetType()), position.valueDelta(), Long::sum);
+        }
+    }
+
+    private static int refreshInChunks(List<String> keys, ToIntFunction<List<String>> refresh) {
+        int refreshed = 0;
+        for (int from = 0; from < keys.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            refreshed += refresh.applyAsInt(keys.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, keys.size())));
+        }
+        return refreshed;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record RepricedPosition(
+            String holdingId,
+            String portfolioId,
+            AssetType assetType,
+            long quantity,
+            long averageCost,
+            long marketValue,
+            long unrealizedPnL,
+            BigDecimal unrealizedPnLPercent,
+            long valueDelta) {
+    }
+
+    // Holding totals row of the portfolio's owner for one asset type
+    private record TotalsKey(String portfolioId, AssetType assetType) {
+    }
+}
@@ -1,18 +1,44 @@
 package com.finflow.portfolio.application;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.finflow.portfolio.domain.Portfolio;
 import com.finflow.portfolio.domain.User;
 import com.finflow.portfolio.dto.request.CreateUserRequest;
 import com.finflow.portfolio.dto.request.UpdateUserRequest;
+import com.finflow.portfolio.dto.response.CursorPage;
 import com.finflow.portfolio.dto.response.PaginatedResponse;
+import com.finflow.portfolio.dto.response.PaginatedResponse.CountMode;
 import com.finflow.portfolio.dto.response.UserResponse;
 import com.finflow.portfolio.exception.ConflictException;
 import com.finflow.portfolio.exception.ResourceNotFoundException;
+import com.finflow.portfolio.infrastructure.index.SymbolHoldingIndex;
+import com.finflow.portfolio.infrastructure.index.TrigramIndex;
+import com.finflow.portfolio.infrastructure.index.UserSearchIndex;
+import com.finflow.portfolio.infrastructure.index.UserUniquenessFilter;
+import com.finflow.portfolio.infrastructure.stats.RowCountEstimator;
+import com.finflow.portfolio.repository.ExternalAccountRepository;
+import com.finflow.portfolio.repository.HoldingRepository;
+import com.finflow.portfolio.repository.HoldingTotalsRepository;
+import com.finflow.portfolio.repository.PortfolioValueSnapshotRepository;
 import com.finflow.portfolio.repository.UserRepository;
 
 @Service
@@ -20,20 +46,42 @@ import com.finflow.portfolio.repository.UserRepository;
 public class UserService {
 
 	private final UserRepository userRepository;
+	private final HoldingRepository holdingRepository;
+	private final HoldingTotalsRepository holdingTotalsRepository;
+	private final PortfolioValueSnapshotRepository snapshotRepository;
+	private final ExternalAccountRepository externalAccountRepository;
+	private final SymbolHoldingIndex symbolIndex;
+	private final UserSearchIndex userSearchIndex;
+	private final UserUniquenessFilter uniquenessFilter;
 	private final PasswordEncoder passwordEncoder;
+	private final RowCountEstimator rowCountEstimator;
 
-	public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+	public UserService(UserRepository userRepository, HoldingRepository holdingRepository,
+			HoldingTotalsRepository holdingTotalsRepository, PortfolioValueSnapshotRepository snapshotRepository,
+			ExternalAccountRepository externalAccountRepository, SymbolHoldingIndex symbolIndex,
+			UserSearchIndex userSearchIndex, UserUniquenessFilter uniquenessFilter,
+			PasswordEncoder passwordEncoder, RowCountEstimator rowCountEstimator) {
 		this.userRepository = userRepository;
+		this.holdingRepository = holdingRepository;
+		this.holdingTotalsRepository = holdingTotalsRepository;
+		this.snapshotRepository = snapshotRepository;
+		this.externalAccountRepository = externalAccountRepository;
+		this.symbolIndex = symbolIndex;
+		this.userSearchIndex = userSearchIndex;
+		this.uniquenessFilter = uniquenessFilter;
 		this.passwordEncoder = passwordEncoder;
+		this.rowCountEstimator = rowCountEstimator;
 	}
 
 	public UserResponse createUser(CreateUserRequest request) {
 
-		if (userRepository.existsByUsername(request.username())) {
+		// The filters rule out most new values without a query
+		if (uniquenessFilter.mightHaveUsername(request.username())
+				&& userRepository.existsByUsername(request.username())) {
 			throw new ConflictException("User", "username", request.username());
 		}
 
-		if (userRepository.existsByEmail(request.email())) {
+		if (uniquenessFilter.mightHaveEmail(request.email()) && userRepository.existsByEmail(request.email())) {
 			throw new ConflictException("User", "email", request.email());
 		}
 
@@ -48,7 +96,8 @@ public class UserService {
 
 		// 4. Save via repository
 
-		User savedUser = userRepository.save(user);
+		User savedUser = saveUnique(user);
+		userSearchIndex.upsert(savedUser);
 
 		// 5. Convert Entity -> Response DTO
 
@@ -87,14 +136,18 @@ public class UserService {
 		User user = userRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User", userId));
 
 		if (request.username() != null) {
-			if (!request.username().equals(user.getUsername()) && userRepository.existsByUsername(request.username())) {
+			if (!request.username().equals(user.getUsername())
+					&& uniquenessFilter.mightHaveUsername(request.username())
+					&& userRepository.existsByUsername(request.username())) {
 				throw new ConflictException("User", "username", request.username());
 			}
 			user.setUsername(request.username());
 		}
 
 		if (request.email() != null) {
-			if (!request.email().equals(user.getEmail()) && userRepository.existsByEmail(request.email())) {
+			if (!request.email().equals(user.getEmail())
+					&& uniquenessFilter.mightHaveEmail(request.email())
+					&& userRepository.existsByEmail(request.email())) {
 				throw new ConflictException("User", "email", request.email());
 			}
 			user.setEmail(request.email());
@@ -104,22 +157,110 @@ public class UserService {
 			user.setAvatar(request.avatar());
 		}
 
-		User updatedUser = userRepository.save(user);
+		User updatedUser = saveUnique(user);
+		userSearchIndex.upsert(updatedUser);
 		return UserResponse.from(updatedUser);
 
 	}
 
+	/**
+	 * Save and flush, so a username or email taken by a write the uniqueness
+	 * filter has not seen, or by a concurrent request, fails on the unique
+	 * constraint here and is reported as a conflict.
+	 */
+	private User saveUnique(User user) {
+		User saved;
+		try {
+			saved = userRepository.saveAndFlush(user);
+		} catch (DataIntegrityViolationException e) {
+			throw duplicateUser(user, e);
+		}
+		uniquenessFilter.add(saved);
+		return saved;
+	}
+
+	private static RuntimeException duplicateUser(User user, DataIntegrityViolationException e) {
+		String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+		if (message.contains(User.UNIQUE_USERNAME)) {
+			return new ConflictException("User", "username", user.getUsername());
+		}
+		if (message.contains(User.UNIQUE_EMAIL)) {
+			return new ConflictException("User", "email", user.getEmail());
+		}
+		return e;
+	}
+
+	/**
+	 * Delete a user and everything they own with one DELETE per table. Holdings go
+	 * in bulk before the user is removed, so the User -> Portfolio -> holdings
+	 * cascade finds none to load and delete one by one; the user and portfolio
+	 * rows are removed as entities so their cache entries are evicted.
+	 */
 	public void deleteUser(String userId) {
-		if (!userRepository.existsById(userId)) {
-			throw new ResourceNotFoundException("User", userId);
+		User user = userRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User", userId));
+		Portfolio portfolio = user.getPortfolio();
+		if (portfolio != null) {
+			holdingRepository.deleteByPortfolio_Id(portfolio.getId());
+			snapshotRepository.deleteByPortfolioId(portfolio.getId());
+			symbolIndex.removePortfolio(portfolio.getId());
+		}
+		holdingTotalsRepository.deleteByUserId(userId);
+		externalAccountRepository.deleteByUserId(userId);
+		userRepository.delete(user);
+		userSearchIndex.remove(userId);
+	}
+
+	/**
+	 * Search users by username or email. Unsorted searches are ranked by the
+	 * in-memory search index, which also gives the exact total for free; sorted
+	 * searches, terms too short for the index and searches before it is built go
+	 * to the database.
+	 */
+	@Transactional(readOnly = true)
+	public PaginatedResponse<UserResponse> searchUsers(String search, Pageable pageable, CountMode count) {
+		if (pageable.getSort().isUnsorted()) {
+			Optional<TrigramIndex.Matches> matches = userSearchIndex.search(search, (int) pageable.getOffset(), pageable.getPageSize());
+			if (matches.isPresent()) {
+				return rankedSearchResults(matches.get(), pageable, count);
+			}
+		}
+		if (count == CountMode.EXACT) {
+			Page<User> userPage = userRepository.searchUsers(search, pageable);
+			return PaginatedResponse.from(userPage, UserResponse::from);
+		}
+		Slice<User> userSlice = userRepository.searchUsersSlice(search, pageable);
+		Long approximateTotal = null;
+		if (count == CountMode.APPROXIMATE) {
+			String pattern = "%" + search.toLowerCase() + "%";
+			approximateTotal = rowCountEstimator
+					.estimate("users", "LOWER(username) LIKE ? OR LOWER(email) LIKE ?", pattern, pattern)
+					.orElse(null);
+		}
+		return PaginatedResponse.fromSlice(userSlice, UserResponse::from, approximateTotal);
+	}
+
+	private PaginatedResponse<UserResponse> rankedSearchResults(TrigramIndex.Matches matches, Pageable pageable,
+			CountMode count) {
+		Map<String, User> usersById = userRepository.findByIdIn(matches.userIds()).stream()
+				.collect(Collectors.toMap(User::getId, Function.identity()));
+		// Keep the index ranking; a user deleted since the search simply drops out
+		List<User> users = matches.userIds().stream()
+				.map(usersById::get)
+				.filter(Objects::nonNull)
+				.toList();
+		if (count == CountMode.NONE) {
+			boolean hasNext = pageable.getOffset() + pageable.getPageSize() < matches.total();
+			return PaginatedResponse.fromSlice(new SliceImpl<>(users, pageable, hasNext), UserResponse::from, null);
 		}
-		userRepository.deleteById(userId);
+		return PaginatedResponse.from(new PageImpl<>(users, pageable, matches.total()), UserResponse::from);
 	}
 
 	@Transactional(readOnly = true)
-	public PaginatedResponse<UserResponse> searchUsers(String search, Pageable pageable) {
-		Page<User> userPage = userRepository.searchUsers(search, pageable);
-		return PaginatedResponse.from(userPage, UserResponse::from);
+	public CursorPage<UserResponse> searchUsersAfterCursor(String search, String cursor, int size) {
+		ScrollPosition position = CursorPage.position(cursor);
+		Window<User> window = userRepository.findByUsernameContainingIgnoreCaseOrEmailContainingIgnoreCaseOrderByUsernameAscIdAsc(
+				search, search, position, CursorPage.limit(size));
+		return CursorPage.from(window, position, UserResponse::from);
 	}
 
 }
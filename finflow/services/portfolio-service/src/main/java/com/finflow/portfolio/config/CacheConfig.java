@@ -0,0 +1,87 @@
+package com.finflow.portfolio.config;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.finflow.portfolio.domain.Portfolio;
+import com.finflow.portfolio.domain.User;
+import com.finflow.portfolio.repository.PortfolioRepository;
+import com.finflow.portfolio.repository.UserRepository;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+
+/**
+ * Hibernate second-level cache regions, held in a local Caffeine JCache.
+ *
+ * User and Portfolio entities are cached, as are the user to portfolio lookup
+ * and the user existence check.
+ * Writes through Hibernate keep the regions consistent on their own; writes
+ * made with plain JDBC evict what they touched (see RevaluationService). The
+ * TTL only bounds how long an entry can outlive a write made elsewhere.
+ *
+ * Each region reports cache.gets (hit/miss), cache.puts, cache.removals and
+ * cache.evictions through Actuator, tagged with the region name.
+ */
+@Configuration
+public class CacheConfig {
+
+  private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+  private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+  @Bean(destroyMethod = "close")
+  public CacheManager hibernateCacheManager(
+      MeterRegistry meterRegistry,
+      @Value("${app.cache.entities.max-size:10000}") long maxSize,
+      @Value("${app.cache.entities.ttl-ms:600000}") long ttlMs) {
+    CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+        .getCacheManager();
+
+    CaffeineConfiguration<Object, Object> bounded = new CaffeineConfiguration<>();
+    bounded.setMaximumSize(OptionalLong.of(maxSize));
+    bounded.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(ttlMs)));
+    bounded.setStatisticsEnabled(true);
+    for (String region : List.of(
+        User.class.getName(),
+        Portfolio.class.getName(),
+        PortfolioRepository.BY_USER_CACHE_REGION,
+        UserRepository.EXISTS_CACHE_REGION,
+        QUERY_RESULTS_REGION)) {
+      createCache(cacheManager, meterRegistry, region, bounded);
+    }
+
+    // Query results are validated against these timestamps, so they must never be evicted
+    CaffeineConfiguration<Object, Object> unbounded = new CaffeineConfiguration<>();
+    unbounded.setStatisticsEnabled(true);
+    createCache(cacheManager, meterRegistry, UPDATE_TIMESTAMPS_REGION, unbounded);
+    return cacheManager;
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+    return properties -> {
+      properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+      properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+    };
+  }
+
+  private static void createCache(CacheManager cacheManager, MeterRegistry meterRegistry,
+      String region, CaffeineConfiguration<Object, Object> configuration) {
+    if (cacheManager.getCache(region) == null) {
+      cacheManager.createCache(region, new CaffeineConfiguration<>(configuration));
+    }
+    JCacheMetrics.monitor(meterRegistry, cacheManager.getCache(region));
+  }
+}
@@ -0,0 +1,86 @@
+package com.finflow.portfolio.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.finflow.portfolio.infrastructure.datasource.ReadYourWritesInterceptor;
+import com.finflow.portfolio.infrastructure.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Primary/replica split, active once app.datasource.replica.url is set.
+ *
+ * Connections are handed out lazily: a transaction marked readOnly is flagged
+ * read-only before its first statement and gets a replica connection, anything
+ * else gets a primary one. Clients and users that wrote within the last
+ * read-your-writes window read from the primary (see ReadYourWritesInterceptor).
+ *
+ * Each pool reports hikaricp.* metrics tagged with its pool name.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+public class DataSourceConfig implements WebMvcConfigurer {
+
+  @Value("${app.datasource.replica.read-your-writes-ms:5000}")
+  private long readYourWritesMs;
+
+  @Bean
+  @Primary
+  @ConfigurationProperties("spring.datasource")
+  public DataSourceProperties primaryDataSourceProperties() {
+    return new DataSourceProperties();
+  }
+
+  @Bean
+  @ConfigurationProperties("app.datasource.replica")
+  public DataSourceProperties replicaDataSourceProperties() {
+    return new DataSourceProperties();
+  }
+
+  @Bean(destroyMethod = "close")
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryPool(
+      @Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+    HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    pool.setPoolName("primary");
+    return pool;
+  }
+
+  @Bean(destroyMethod = "close")
+  @ConfigurationProperties("app.datasource.replica.hikari")
+  public HikariDataSource replicaPool(
+      @Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+    HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    pool.setPoolName("replica");
+    pool.setReadOnly(true);
+    return pool;
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("primaryPool") HikariDataSource primaryPool,
+      @Qualifier("replicaPool") HikariDataSource replicaPool) {
+    LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryPool);
+    dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primaryPool, replicaPool));
+    return dataSource;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new ReadYourWritesInterceptor(Duration.ofMillis(readYourWritesMs)));
+  }
+}
@@ -3,17 +3,28 @@ package com.finflow.portfolio.config;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import com.finflow.portfolio.infrastructure.kafka.event.PortfolioEvent;
+import com.finflow.portfolio.infrastructure.kafka.event.PriceTickEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class KafkaConfig {
@@ -21,6 +32,12 @@ public class KafkaConfig {
   @Value("${spring.kafka.bootstrap-servers}")
   private String bootstrapServers;
 
+  @Value("${spring.kafka.consumer.group-id}")
+  private String consumerGroupId;
+
+  @Value("${app.kafka.price-ticks.max-poll-records:5000}")
+  private int priceTickMaxPollRecords;
+
   @Bean
   public ProducerFactory<String, PortfolioEvent> producerFactory() {
     Map<String, Object> config = new HashMap<>();
@@ -36,4 +53,31 @@ public class KafkaConfig {
   public KafkaTemplate<String, PortfolioEvent> kafkaTemplate() {
     return new KafkaTemplate<>(producerFactory());
   }
+
+  @Bean
+  public ConsumerFactory<String, PriceTickEvent> priceTickConsumerFactory(MeterRegistry meterRegistry) {
+    Map<String, Object> config = new HashMap<>();
+    config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    config.put(ConsumerConfig.GROUP_ID_CONFIG, consumerGroupId);
+    config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, priceTickMaxPollRecords);
+    // Ticks are only useful while fresh; a new consumer group starts at the head
+    config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+
+    // Ticks are published by the market-data feed without type headers
+    JsonDeserializer<PriceTickEvent> valueDeserializer = new JsonDeserializer<>(PriceTickEvent.class, false);
+    DefaultKafkaConsumerFactory<String, PriceTickEvent> factory = new DefaultKafkaConsumerFactory<>(
+        config, new StringDeserializer(), new ErrorHandlingDeserializer<>(valueDeserializer));
+    factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+    return factory;
+  }
+
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, PriceTickEvent> priceTickListenerContainerFactory(
+      ConsumerFactory<String, PriceTickEvent> priceTickConsumerFactory) {
+    ConcurrentKafkaListenerContainerFactory<String, PriceTickEvent> factory =
+        new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(priceTickConsumerFactory);
+    factory.setBatchListener(true);
+    return factory;
+  }
 }
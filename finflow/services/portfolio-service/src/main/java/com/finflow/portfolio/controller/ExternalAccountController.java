@@ -1,8 +1,11 @@
 package com.finflow.portfolio.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,12 +14,18 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.finflow.portfolio.application.ExternalAccountService;
+import com.finflow.portfolio.domain.ConnectionStatus;
 import com.finflow.portfolio.domain.ExternalPlatform;
 import com.finflow.portfolio.dto.request.ConnectExternalAccountRequest;
 import com.finflow.portfolio.dto.request.UpdateExternalAccountRequest;
+import com.finflow.portfolio.dto.response.CursorPage;
 import com.finflow.portfolio.dto.response.ExternalAccountResponse;
 
 import jakarta.validation.Valid;
@@ -26,9 +35,11 @@ import jakarta.validation.Valid;
 public class ExternalAccountController {
 
     private final ExternalAccountService externalAccountService;
+    private final ObjectMapper objectMapper;
 
-    public ExternalAccountController(ExternalAccountService externalAccountService) {
+    public ExternalAccountController(ExternalAccountService externalAccountService, ObjectMapper objectMapper) {
         this.externalAccountService = externalAccountService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/user/{userId}/connect")
@@ -109,9 +120,34 @@ public class ExternalAccountController {
         return ResponseEntity.ok(accounts);
     }
 
-    @GetMapping("/ready-to-sync")
-    public ResponseEntity<List<ExternalAccountResponse>> getAccountsReadyToSync() {
-        List<ExternalAccountResponse> accounts = externalAccountService.getAccountsReadyToSync();
+    @GetMapping("/status/{status}/scroll")
+    public ResponseEntity<CursorPage<ExternalAccountResponse>> getAccountsByStatusAfterCursor(
+            @PathVariable ConnectionStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<ExternalAccountResponse> accounts = externalAccountService.getAccountsByStatusAfterCursor(status, cursor, size);
         return ResponseEntity.ok(accounts);
     }
+
+    /**
+     * Writes the JSON array as the accounts are read, so the response is never
+     * held in memory as a whole.
+     */
+    @GetMapping("/ready-to-sync")
+    public ResponseEntity<StreamingResponseBody> getAccountsReadyToSync() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartArray();
+                externalAccountService.forEachAccountReadyToSync(account -> {
+                    try {
+                        generator.writeObject(account);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 }
@@ -1,11 +1,13 @@
 package com.finflow.portfolio.controller;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,12 +19,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.finflow.portfolio.application.HoldingImportService;
 import com.finflow.portfolio.application.HoldingService;
 import com.finflow.portfolio.domain.AssetType;
 import com.finflow.portfolio.dto.request.CreateHoldingRequest;
 import com.finflow.portfolio.dto.request.UpdateHoldingRequest;
+import com.finflow.portfolio.dto.response.CursorPage;
+import com.finflow.portfolio.dto.response.HoldingImportResponse;
 import com.finflow.portfolio.dto.response.HoldingResponse;
+import com.finflow.portfolio.dto.response.HoldingTotalsResponse;
 import com.finflow.portfolio.dto.response.PaginatedResponse;
+import com.finflow.portfolio.dto.response.PaginatedResponse.CountMode;
+import com.finflow.portfolio.infrastructure.importer.HoldingImportReader;
 
 import jakarta.validation.Valid;
 
@@ -30,10 +38,14 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/holdings")
 public class HoldingController {
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final HoldingService holdingService;
+    private final HoldingImportService holdingImportService;
 
-    public HoldingController(HoldingService holdingService) {
+    public HoldingController(HoldingService holdingService, HoldingImportService holdingImportService) {
         this.holdingService = holdingService;
+        this.holdingImportService = holdingImportService;
     }
 
     @PostMapping("/user/{userId}")
@@ -44,6 +56,22 @@ public class HoldingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(holding);
     }
 
+    @PostMapping(value = "/user/{userId}/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<HoldingImportResponse> importHoldingsNdjson(
+            @PathVariable String userId,
+            InputStream body) {
+        HoldingImportResponse result = holdingImportService.importHoldings(userId, body, HoldingImportReader.Format.NDJSON);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
+    @PostMapping(value = "/user/{userId}/import", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<HoldingImportResponse> importHoldingsCsv(
+            @PathVariable String userId,
+            InputStream body) {
+        HoldingImportResponse result = holdingImportService.importHoldings(userId, body, HoldingImportReader.Format.CSV);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
     @GetMapping("/{holdingId}")
     public ResponseEntity<HoldingResponse> getHoldingById(@PathVariable String holdingId) {
         HoldingResponse holding = holdingService.getHoldingById(holdingId);
@@ -59,8 +87,18 @@ public class HoldingController {
     @GetMapping("/user/{userId}/paginated")
     public ResponseEntity<PaginatedResponse<HoldingResponse>> getHoldingsByUserIdPaginated(
             @PathVariable String userId,
-            @PageableDefault(size = 20) Pageable pageable) {
-        PaginatedResponse<HoldingResponse> holdings = holdingService.getHoldingsByUserIdPaginated(userId, pageable);
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(defaultValue = "EXACT") CountMode count) {
+        PaginatedResponse<HoldingResponse> holdings = holdingService.getHoldingsByUserIdPaginated(userId, pageable, count);
+        return ResponseEntity.ok(holdings);
+    }
+
+    @GetMapping("/user/{userId}/scroll")
+    public ResponseEntity<CursorPage<HoldingResponse>> getHoldingsByUserIdAfterCursor(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<HoldingResponse> holdings = holdingService.getHoldingsByUserIdAfterCursor(userId, cursor, size);
         return ResponseEntity.ok(holdings);
     }
 
@@ -117,4 +155,10 @@ public class HoldingController {
         BigDecimal totalPnL = holdingService.getTotalUnrealizedPnL(userId);
         return ResponseEntity.ok(totalPnL);
     }
+
+    @GetMapping("/user/{userId}/totals")
+    public ResponseEntity<List<HoldingTotalsResponse>> getHoldingTotals(@PathVariable String userId) {
+        List<HoldingTotalsResponse> totals = holdingService.getHoldingTotals(userId);
+        return ResponseEntity.ok(totals);
+    }
 }
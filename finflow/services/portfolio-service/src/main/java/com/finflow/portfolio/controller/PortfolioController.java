@@ -1,8 +1,12 @@
 package com.finflow.portfolio.controller;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,12 +17,16 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.finflow.portfolio.application.PortfolioHistoryService;
 import com.finflow.portfolio.application.PortfolioService;
 import com.finflow.portfolio.dto.request.CreatePortfolioRequest;
 import com.finflow.portfolio.dto.request.UpdatePortfolioRequest;
+import com.finflow.portfolio.dto.response.PerformancePointResponse;
 import com.finflow.portfolio.dto.response.PortfolioResponse;
 import com.finflow.portfolio.dto.response.PortfolioSummaryResponse;
+import com.finflow.portfolio.infrastructure.stream.PortfolioSummaryStream;
 
 import jakarta.validation.Valid;
 
@@ -27,9 +35,14 @@ import jakarta.validation.Valid;
 public class PortfolioController {
 
     private final PortfolioService portfolioService;
+    private final PortfolioHistoryService historyService;
+    private final PortfolioSummaryStream summaryStream;
 
-    public PortfolioController(PortfolioService portfolioService) {
+    public PortfolioController(PortfolioService portfolioService, PortfolioHistoryService historyService,
+                               PortfolioSummaryStream summaryStream) {
         this.portfolioService = portfolioService;
+        this.historyService = historyService;
+        this.summaryStream = summaryStream;
     }
 
     @PostMapping("/user/{userId}")
@@ -64,6 +77,22 @@ public class PortfolioController {
         return ResponseEntity.ok(summary);
     }
 
+    @GetMapping(value = "/user/{userId}/summary/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPortfolioSummary(@PathVariable String userId) {
+        PortfolioSummaryResponse summary = portfolioService.getPortfolioSummary(userId);
+        return ResponseEntity.ok(summaryStream.subscribe(summary));
+    }
+
+    @GetMapping("/user/{userId}/performance")
+    public ResponseEntity<List<PerformancePointResponse>> getPerformance(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String interval) {
+        List<PerformancePointResponse> points = historyService.getPerformance(userId, startDate, endDate, interval);
+        return ResponseEntity.ok(points);
+    }
+
     @PutMapping("/{portfolioId}")
     public ResponseEntity<PortfolioResponse> updatePortfolio(
             @PathVariable String portfolioId,
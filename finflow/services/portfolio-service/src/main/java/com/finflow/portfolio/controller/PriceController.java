@@ -0,0 +1,30 @@
+package com.finflow.portfolio.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.finflow.portfolio.application.RevaluationService;
+import com.finflow.portfolio.dto.request.PriceBatchRequest;
+import com.finflow.portfolio.dto.response.PriceBatchResponse;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/prices")
+public class PriceController {
+
+    private final RevaluationService revaluationService;
+
+    public PriceController(RevaluationService revaluationService) {
+        this.revaluationService = revaluationService;
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<PriceBatchResponse> revalueBatch(@Valid @RequestBody PriceBatchRequest request) {
+        PriceBatchResponse result = revaluationService.revalue(request.toPriceMap());
+        return ResponseEntity.ok(result);
+    }
+}
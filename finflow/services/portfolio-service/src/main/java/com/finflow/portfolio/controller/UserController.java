@@ -17,7 +17,9 @@ import org.springframework.web.bind.annotation.RestController;
 import com.finflow.portfolio.application.UserService;
 import com.finflow.portfolio.dto.request.CreateUserRequest;
 import com.finflow.portfolio.dto.request.UpdateUserRequest;
+import com.finflow.portfolio.dto.response.CursorPage;
 import com.finflow.portfolio.dto.response.PaginatedResponse;
+import com.finflow.portfolio.dto.response.PaginatedResponse.CountMode;
 import com.finflow.portfolio.dto.response.UserResponse;
 
 import jakarta.validation.Valid;
@@ -79,8 +81,18 @@ public class UserController {
     @GetMapping("/search")
     public ResponseEntity<PaginatedResponse<UserResponse>> searchUsers(
             @RequestParam String query,
-            @PageableDefault(size = 20) Pageable pageable) {
-        PaginatedResponse<UserResponse> users = userService.searchUsers(query, pageable);
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(defaultValue = "EXACT") CountMode count) {
+        PaginatedResponse<UserResponse> users = userService.searchUsers(query, pageable, count);
+        return ResponseEntity.ok(users);
+    }
+
+    @GetMapping("/search/scroll")
+    public ResponseEntity<CursorPage<UserResponse>> searchUsersAfterCursor(
+            @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<UserResponse> users = userService.searchUsersAfterCursor(query, cursor, size);
         return ResponseEntity.ok(users);
     }
 }
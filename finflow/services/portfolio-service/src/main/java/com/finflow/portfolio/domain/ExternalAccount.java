@@ -1,21 +1,28 @@
 package com.finflow.portfolio.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "external_accounts", indexes = {
-    @Index(name = "idx_external_account_user", columnList = "user_id"),
-    @Index(name = "idx_external_account_platform", columnList = "platform"),
-    @Index(name = "idx_external_account_status", columnList = "status")
+    @Index(name = "idx_external_account_user", columnList = "user_id, platform"),
+    @Index(name = "idx_external_account_status_created", columnList = "status, created_at, id"),
+    @Index(name = "idx_external_account_token_expiry", columnList = "token_expires_at")
 })
 public class ExternalAccount {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
     private String id;
 
     @Column(name = "user_id", nullable = false)
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
     private String userId;
 
     @Enumerated(EnumType.STRING)
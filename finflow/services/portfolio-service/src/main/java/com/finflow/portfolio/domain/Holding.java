@@ -1,20 +1,31 @@
 package com.finflow.portfolio.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 
 @Entity
+@NamedEntityGraph(name = Holding.WITH_PORTFOLIO, attributeNodes = @NamedAttributeNode("portfolio"))
 @Table(name = "holdings", indexes = {
-    @Index(name = "idx_holding_portfolio", columnList = "portfolio_id"),
+    @Index(name = "idx_holding_portfolio", columnList = "portfolio_id, id"),
     @Index(name = "idx_holding_symbol", columnList = "symbol"),
-    @Index(name = "idx_holding_user_symbol", columnList = "user_id, symbol")
+    @Index(name = "idx_holding_user_symbol", columnList = "user_id, symbol, id"),
+    @Index(name = "idx_holding_user_market_value", columnList = "user_id, market_value DESC"),
+    @Index(name = "idx_holding_user_pnl", columnList = "user_id, unrealized_pnl DESC")
 })
 public class Holding {
 
+    // Fetch plan for callers that read the portfolio beyond its ID
+    public static final String WITH_PORTFOLIO = "Holding.withPortfolio";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
     private String id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -22,6 +33,8 @@ public class Holding {
     private Portfolio portfolio;
 
     @Column(name = "user_id", nullable = false)
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
     private String userId;  // Denormalized for query performance
 
     @Column(nullable = false, length = 20)
@@ -84,6 +97,23 @@ public class Holding {
     // Business logic method to update market value and calculate P&L
     public void updateMarketValue(BigDecimal newPrice) {
         this.currentPrice = newPrice;
+
+        // Fast path on scaled longs; BigDecimal only for inputs finer than the
+        // column scales or values too large for the kernel
+        if (ValuationKernel.isExact(quantity, ValuationKernel.QUANTITY_SCALE)
+                && ValuationKernel.isExact(newPrice, ValuationKernel.PRICE_SCALE)
+                && ValuationKernel.isExact(averageCost, ValuationKernel.PRICE_SCALE)) {
+            try {
+                applyValuation(
+                    ValuationKernel.toUnits(quantity, ValuationKernel.QUANTITY_SCALE),
+                    ValuationKernel.toUnits(newPrice, ValuationKernel.PRICE_SCALE),
+                    ValuationKernel.toUnits(averageCost, ValuationKernel.PRICE_SCALE));
+                return;
+            } catch (ArithmeticException overflow) {
+                // Fall through to the BigDecimal path
+            }
+        }
+
         this.marketValue = quantity.multiply(newPrice).setScale(4, RoundingMode.HALF_UP);
 
         BigDecimal costBasis = quantity.multiply(averageCost).setScale(4, RoundingMode.HALF_UP);
@@ -99,6 +129,36 @@ public class Holding {
         }
     }
 
+    // Everything is computed before assigning so an overflow leaves the holding untouched
+    private void applyValuation(long quantityUnits, long priceUnits, long averageCostUnits) {
+        long value = ValuationKernel.value(quantityUnits, priceUnits);
+        long costBasis = ValuationKernel.value(quantityUnits, averageCostUnits);
+        long pnl = Math.subtractExact(value, costBasis);
+        BigDecimal pnlPercent = costBasis != 0
+            ? ValuationKernel.toDecimal(ValuationKernel.percentOf(pnl, costBasis), ValuationKernel.VALUE_SCALE)
+            : BigDecimal.ZERO;
+
+        this.marketValue = ValuationKernel.toDecimal(value, ValuationKernel.VALUE_SCALE);
+        this.unrealizedPnL = ValuationKernel.toDecimal(pnl, ValuationKernel.VALUE_SCALE);
+        this.unrealizedPnLPercent = pnlPercent;
+    }
+
+    // Cost basis at the scale used for P&L, matching updateMarketValue
+    public BigDecimal getCostBasis() {
+        if (quantity == null || averageCost == null) {
+            return BigDecimal.ZERO;
+        }
+        return quantity.multiply(averageCost).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    // Snapshot of the values the portfolio aggregates are built from
+    public HoldingValuation valuation() {
+        return new HoldingValuation(
+            marketValue != null ? marketValue : BigDecimal.ZERO,
+            unrealizedPnL != null ? unrealizedPnL : BigDecimal.ZERO,
+            getCostBasis());
+    }
+
     // Helper method to add to position (average down/up)
     public void addToPosition(BigDecimal additionalQuantity, BigDecimal price) {
         BigDecimal currentCostBasis = this.quantity.multiply(this.averageCost);
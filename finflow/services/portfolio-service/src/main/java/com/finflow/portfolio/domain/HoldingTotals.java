@@ -0,0 +1,96 @@
+package com.finflow.portfolio.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Count and value of a user's holdings of one asset type, maintained by
+ * deltas alongside the holdings (see HoldingTotalsRepository) so reading them
+ * never scans holdings. Every user with a portfolio has one row per AssetType.
+ */
+@Entity
+@Table(name = "holding_totals")
+@IdClass(HoldingTotals.Key.class)
+public class HoldingTotals {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
+    private String userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "asset_type", nullable = false, length = 20)
+    private AssetType assetType;
+
+    @Column(name = "holdings_count", nullable = false)
+    private long holdingsCount;
+
+    @Column(name = "market_value", nullable = false, precision = 19, scale = 4)
+    private BigDecimal marketValue = BigDecimal.ZERO;
+
+    @Column(name = "unrealized_pnl", nullable = false, precision = 19, scale = 4)
+    private BigDecimal unrealizedPnL = BigDecimal.ZERO;
+
+    @Column(name = "cost_basis", nullable = false, precision = 19, scale = 4)
+    private BigDecimal costBasis = BigDecimal.ZERO;
+
+    protected HoldingTotals() {
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public AssetType getAssetType() {
+        return assetType;
+    }
+
+    public long getHoldingsCount() {
+        return holdingsCount;
+    }
+
+    public BigDecimal getMarketValue() {
+        return marketValue;
+    }
+
+    public BigDecimal getUnrealizedPnL() {
+        return unrealizedPnL;
+    }
+
+    public BigDecimal getCostBasis() {
+        return costBasis;
+    }
+
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String userId;
+        private AssetType assetType;
+
+        public Key() {
+        }
+
+        public Key(String userId, AssetType assetType) {
+            this.userId = userId;
+            this.assetType = assetType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && Objects.equals(userId, other.userId) && assetType == other.assetType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, assetType);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.finflow.portfolio.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Snapshot of the parts of a holding that feed the portfolio aggregates.
+ * Taken before and after a change so the portfolio can apply the difference.
+ */
+public record HoldingValuation(BigDecimal marketValue, BigDecimal unrealizedPnL, BigDecimal costBasis) {
+
+    /** Valuation of a holding that does not exist (before creation, after deletion). */
+    public static final HoldingValuation NONE = new HoldingValuation(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+
+    /** Combined valuation of two sets of holdings, for applying many changes as one delta. */
+    public HoldingValuation plus(HoldingValuation other) {
+        return new HoldingValuation(
+            marketValue.add(other.marketValue),
+            unrealizedPnL.add(other.unrealizedPnL),
+            costBasis.add(other.costBasis));
+    }
+}
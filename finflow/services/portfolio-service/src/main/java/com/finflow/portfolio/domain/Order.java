@@ -1,21 +1,27 @@
 package com.finflow.portfolio.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders", indexes = { @Index(name = "idx_order_user", columnList = "user_id"),
-		@Index(name = "idx_order_symbol", columnList = "symbol"),
+@Table(name = "orders", indexes = { @Index(name = "idx_order_symbol", columnList = "symbol"),
 		@Index(name = "idx_order_status", columnList = "status"),
 		@Index(name = "idx_order_user_symbol", columnList = "user_id, symbol") })
 public class Order {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.UUID)
+	@TimeOrderedId
+	@JavaType(UuidStringJavaType.class)
+	@JdbcTypeCode(SqlTypes.UUID)
 	private String id;
 
 	@Column(name = "user_id", nullable = false)
+	@JavaType(UuidStringJavaType.class)
+	@JdbcTypeCode(SqlTypes.UUID)
 	private String userId;
 
 	@Column(nullable = false, length = 20)
@@ -1,19 +1,32 @@
 package com.finflow.portfolio.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = Portfolio.WITH_HOLDINGS, attributeNodes = @NamedAttributeNode("holdings"))
 @Table(name = "portfolios", indexes = {
-    @Index(name = "idx_portfolio_user", columnList = "user_id")
+    @Index(name = "idx_portfolio_total_value", columnList = "total_value DESC")
 })
 public class Portfolio {
 
+    // Fetch plan for callers that walk the holdings of a portfolio
+    public static final String WITH_HOLDINGS = "Portfolio.withHoldings";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
     private String id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -44,6 +57,15 @@ public class Portfolio {
     @Column(name = "total_gain_loss_percent", precision = 10, scale = 4)
     private BigDecimal totalGainLossPercent = BigDecimal.ZERO;
 
+    // Sum of holding cost bases, kept so the gain/loss percent can be maintained by deltas
+    @Column(name = "total_cost_basis", precision = 19, scale = 4)
+    private BigDecimal totalCostBasis = BigDecimal.ZERO;
+
+    // Total value at the last daily close, shifted by deposits and withdrawals since;
+    // daily change is measured against it
+    @Column(name = "previous_close_value", precision = 19, scale = 4)
+    private BigDecimal previousCloseValue;
+
     @OneToMany(mappedBy = "portfolio", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Holding> holdings = new ArrayList<>();
 
@@ -83,6 +105,63 @@ public class Portfolio {
         holding.setPortfolio(null);
     }
 
+    // Apply the change of one holding's valuation to the aggregates, instead of
+    // recalculating them from every holding
+    public void applyHoldingDelta(HoldingValuation before, HoldingValuation after) {
+        this.totalValue = totalValue.add(after.marketValue().subtract(before.marketValue()));
+        this.totalGainLoss = orZero(totalGainLoss).add(after.unrealizedPnL().subtract(before.unrealizedPnL()));
+        this.totalCostBasis = orZero(totalCostBasis).add(after.costBasis().subtract(before.costBasis()));
+        this.totalGainLossPercent = gainLossPercent(totalGainLoss, totalCostBasis);
+        refreshDailyChange();
+    }
+
+    // Move cash between the balance and holdings (buys, sells), keeping total value in step
+    public void adjustCash(BigDecimal amount) {
+        this.cashBalance = cashBalance.add(amount);
+        this.totalValue = totalValue.add(amount);
+        refreshDailyChange();
+    }
+
+    // Deposit (positive) or withdraw (negative) cash. The close baseline moves
+    // with it so money moved in or out does not count as a daily gain or loss.
+    public void recordCashFlow(BigDecimal amount) {
+        this.cashBalance = cashBalance.add(amount);
+        this.buyingPower = buyingPower.add(amount);
+        this.totalValue = totalValue.add(amount);
+        if (previousCloseValue != null) {
+            this.previousCloseValue = previousCloseValue.add(amount);
+        }
+        refreshDailyChange();
+    }
+
+    // Start a new trading day from the current total value
+    public void captureDailyClose() {
+        this.previousCloseValue = totalValue;
+        refreshDailyChange();
+    }
+
+    // Daily change against the close baseline; left as is until a first close is captured
+    public void refreshDailyChange() {
+        if (previousCloseValue == null) {
+            return;
+        }
+        this.dailyChange = totalValue.subtract(previousCloseValue);
+        this.dailyChangePercent = previousCloseValue.compareTo(BigDecimal.ZERO) > 0
+            ? dailyChange.divide(previousCloseValue, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100))
+            : BigDecimal.ZERO;
+    }
+
+    public static BigDecimal gainLossPercent(BigDecimal gainLoss, BigDecimal costBasis) {
+        if (costBasis.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return gainLoss.divide(costBasis, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
     // Getters and Setters
     public String getId() {
         return id;
@@ -164,6 +243,22 @@ public class Portfolio {
         this.totalGainLossPercent = totalGainLossPercent;
     }
 
+    public BigDecimal getTotalCostBasis() {
+        return totalCostBasis;
+    }
+
+    public void setTotalCostBasis(BigDecimal totalCostBasis) {
+        this.totalCostBasis = totalCostBasis;
+    }
+
+    public BigDecimal getPreviousCloseValue() {
+        return previousCloseValue;
+    }
+
+    public void setPreviousCloseValue(BigDecimal previousCloseValue) {
+        this.previousCloseValue = previousCloseValue;
+    }
+
     public List<Holding> getHoldings() {
         return holdings;
     }
@@ -0,0 +1,120 @@
+package com.finflow.portfolio.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A portfolio's value over one time bucket. RAW rows are captured from the
+ * portfolio totals; coarser resolutions are rolled up from the next finer one
+ * and keep its last value, lowest low and highest high (see PortfolioHistoryService).
+ */
+@Entity
+@Table(name = "portfolio_value_snapshots", indexes = {
+    @Index(name = "idx_snapshot_resolution_bucket", columnList = "resolution, bucket_start")
+})
+@IdClass(PortfolioValueSnapshot.Key.class)
+public class PortfolioValueSnapshot {
+
+    @Id
+    @Column(name = "portfolio_id", nullable = false)
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
+    private String portfolioId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private SnapshotResolution resolution;
+
+    @Id
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    // Value at the end of the bucket
+    @Column(name = "total_value", nullable = false, precision = 19, scale = 4)
+    private BigDecimal totalValue;
+
+    @Column(name = "low_value", nullable = false, precision = 19, scale = 4)
+    private BigDecimal lowValue;
+
+    @Column(name = "high_value", nullable = false, precision = 19, scale = 4)
+    private BigDecimal highValue;
+
+    // Total gain/loss at the end of the bucket
+    @Column(name = "total_gain_loss", nullable = false, precision = 19, scale = 4)
+    private BigDecimal totalGainLoss;
+
+    // Number of RAW snapshots the bucket covers
+    @Column(nullable = false)
+    private int samples;
+
+    protected PortfolioValueSnapshot() {
+    }
+
+    public String getPortfolioId() {
+        return portfolioId;
+    }
+
+    public SnapshotResolution getResolution() {
+        return resolution;
+    }
+
+    public Instant getBucketStart() {
+        return bucketStart;
+    }
+
+    public BigDecimal getTotalValue() {
+        return totalValue;
+    }
+
+    public BigDecimal getLowValue() {
+        return lowValue;
+    }
+
+    public BigDecimal getHighValue() {
+        return highValue;
+    }
+
+    public BigDecimal getTotalGainLoss() {
+        return totalGainLoss;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String portfolioId;
+        private SnapshotResolution resolution;
+        private Instant bucketStart;
+
+        public Key() {
+        }
+
+        public Key(String portfolioId, SnapshotResolution resolution, Instant bucketStart) {
+            this.portfolioId = portfolioId;
+            this.resolution = resolution;
+            this.bucketStart = bucketStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && Objects.equals(portfolioId, other.portfolioId)
+                    && resolution == other.resolution && Objects.equals(bucketStart, other.bucketStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(portfolioId, resolution, bucketStart);
+        }
+    }
+}
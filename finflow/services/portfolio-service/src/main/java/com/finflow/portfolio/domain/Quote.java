@@ -0,0 +1,40 @@
+package com.finflow.portfolio.domain;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Latest market price of a symbol, written only by revaluation from the price
+ * feed (see RevaluationService). Loaded by the quote cache when its copy is
+ * missing or stale; trade and manually set prices on holdings never land here.
+ */
+@Entity
+@Table(name = "quotes")
+public class Quote {
+
+    @Id
+    @Column(nullable = false, length = 20)
+    private String symbol;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal price;
+
+    @Column(name = "observed_at", nullable = false)
+    private LocalDateTime observedAt;
+
+    protected Quote() {
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public LocalDateTime getObservedAt() {
+        return observedAt;
+    }
+}
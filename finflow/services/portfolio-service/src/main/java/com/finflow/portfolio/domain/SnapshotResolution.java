@@ -0,0 +1,58 @@
+package com.finflow.portfolio.domain;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Enumeration representing the resolutions portfolio value history is kept at.
+ * Each resolution after RAW is rolled up from the one before it.
+ */
+public enum SnapshotResolution {
+    /**
+     * Snapshots as captured, one per snapshot interval
+     */
+    RAW(null),
+
+    /**
+     * Five-minute buckets
+     */
+    FIVE_MINUTES(Duration.ofMinutes(5)),
+
+    /**
+     * Hourly buckets
+     */
+    HOURLY(Duration.ofHours(1)),
+
+    /**
+     * Daily buckets (UTC days)
+     */
+    DAILY(Duration.ofDays(1));
+
+    private final Duration width;
+
+    SnapshotResolution(Duration width) {
+        this.width = width;
+    }
+
+    /**
+     * Bucket width; null for RAW, whose width is the snapshot interval
+     */
+    public Duration width() {
+        return width;
+    }
+
+    /**
+     * The resolution this one is rolled up from; null for RAW
+     */
+    public SnapshotResolution source() {
+        return ordinal() == 0 ? null : values()[ordinal() - 1];
+    }
+
+    /**
+     * Start of the bucket of the given width containing an instant, aligned to the epoch
+     */
+    public static Instant bucketStart(Instant instant, Duration width) {
+        long widthMillis = width.toMillis();
+        return Instant.ofEpochMilli(Math.floorDiv(instant.toEpochMilli(), widthMillis) * widthMillis);
+    }
+}
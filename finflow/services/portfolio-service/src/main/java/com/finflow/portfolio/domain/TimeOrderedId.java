@@ -0,0 +1,20 @@
+package com.finflow.portfolio.domain;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Generates the identifier as a time-ordered UUID (version 7, see
+ * {@link TimeOrderedIdGenerator}). Combined with {@link UuidStringJavaType}
+ * the ID stays a String in Java and is stored in a native 16-byte UUID column.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface TimeOrderedId {
+}
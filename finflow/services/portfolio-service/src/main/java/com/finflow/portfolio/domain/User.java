@@ -1,21 +1,38 @@
 package com.finflow.portfolio.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users", indexes = { @Index(name = "idx_user_email", columnList = "email"),
-		@Index(name = "idx_user_username", columnList = "username") })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = User.SUMMARY, attributeNodes = @NamedAttributeNode("portfolio"))
+@Table(name = "users", uniqueConstraints = {
+		@UniqueConstraint(name = User.UNIQUE_EMAIL, columnNames = "email"),
+		@UniqueConstraint(name = User.UNIQUE_USERNAME, columnNames = "username") })
 public class User {
 
+	// Fetch plan for UserResponse, which carries the portfolio ID
+	public static final String SUMMARY = "User.summary";
+
+	// Named as in the migrations so a violation can be told apart from its message
+	public static final String UNIQUE_EMAIL = "uk_users_email";
+	public static final String UNIQUE_USERNAME = "uk_users_username";
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.UUID)
+	@TimeOrderedId
+	@JavaType(UuidStringJavaType.class)
+	@JdbcTypeCode(SqlTypes.UUID)
 	private String id;
 
-	@Column(nullable = false, unique = true, length = 255)
+	@Column(nullable = false, length = 255)
 	private String email;
 
-	@Column(nullable = false, unique = true, length = 100)
+	@Column(nullable = false, length = 100)
 	private String username;
 
 	@Column(name = "password_hash", nullable = false)
@@ -0,0 +1,53 @@
+package com.finflow.portfolio.domain;
+
+import java.util.UUID;
+
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.StringJavaType;
+
+/**
+ * Keeps identifiers as Strings in the domain and API while storing them in
+ * a native UUID column (16 bytes, against 36 characters for the text form).
+ * Used with {@code @JdbcTypeCode(SqlTypes.UUID)} on IDs and on the columns
+ * referencing them.
+ *
+ * A value that is not a UUID cannot name a stored row. It is bound as the nil
+ * UUID, which the ID generator never produces, so looking it up finds nothing,
+ * as it did when IDs were stored as text.
+ */
+public class UuidStringJavaType extends StringJavaType {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final UUID NIL = new UUID(0, 0);
+
+    /**
+     * The column value of an ID, for SQL that bypasses the entity mapping.
+     *
+     * @param id the ID in its text form
+     * @return the UUID, or the nil UUID if the text is not one
+     */
+    public static UUID toUuid(String id) {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return NIL;
+        }
+    }
+
+    @Override
+    public <X> X unwrap(String value, Class<X> type, WrapperOptions options) {
+        if (value != null && type == UUID.class) {
+            return type.cast(toUuid(value));
+        }
+        return super.unwrap(value, type, options);
+    }
+
+    @Override
+    public <X> String wrap(X value, WrapperOptions options) {
+        if (value instanceof UUID uuid) {
+            return uuid.toString();
+        }
+        return super.wrap(value, options);
+    }
+}
@@ -0,0 +1,92 @@
+package com.finflow.portfolio.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point valuation arithmetic on scaled longs.
+ *
+ * Quantities are carried as units of 10^-8 and prices, values and percentages
+ * as units of 10^-4, matching the holdings column scales. Every operation
+ * reproduces the scale-4 HALF_UP results of the equivalent BigDecimal
+ * expression without allocating. Operations whose result does not fit in a
+ * long throw {@link ArithmeticException}; callers fall back to BigDecimal.
+ */
+public final class ValuationKernel {
+
+    public static final int QUANTITY_SCALE = 8;
+    public static final int PRICE_SCALE = 4;
+    public static final int VALUE_SCALE = 4;
+
+    private static final long QUANTITY_ONE = 100_000_000L;
+    private static final long VALUE_ONE = 10_000L;
+
+    private ValuationKernel() {
+    }
+
+    /**
+     * Value of a position at a price, i.e. {@code (quantity * price).setScale(4, HALF_UP)}.
+     *
+     * @param quantity quantity in units of 10^-8
+     * @param price    price in units of 10^-4
+     * @return value in units of 10^-4
+     */
+    public static long value(long quantity, long price) {
+        // Split the quantity so the intermediate product stays within a long:
+        // whole units contribute exactly, only the fractional part needs rounding.
+        // Both parts share the quantity's sign, so rounding the fraction alone
+        // rounds the sum the same way.
+        long whole = quantity / QUANTITY_ONE;
+        long fraction = quantity % QUANTITY_ONE;
+        return Math.addExact(
+            Math.multiplyExact(whole, price),
+            divideHalfUp(Math.multiplyExact(fraction, price), QUANTITY_ONE));
+    }
+
+    /**
+     * Gain or loss as a percentage of cost basis, i.e.
+     * {@code pnl.divide(costBasis, 4, HALF_UP).multiply(100)}.
+     *
+     * @param pnl       gain or loss in units of 10^-4
+     * @param costBasis non-zero cost basis in units of 10^-4
+     * @return percentage in units of 10^-4
+     */
+    public static long percentOf(long pnl, long costBasis) {
+        if (costBasis == 0) {
+            throw new ArithmeticException("Cost basis is zero");
+        }
+        return Math.multiplyExact(divideHalfUp(Math.multiplyExact(pnl, VALUE_ONE), costBasis), 100L);
+    }
+
+    /**
+     * Whether a decimal converts to units of the given scale without rounding.
+     */
+    public static boolean isExact(BigDecimal value, int scale) {
+        return value.scale() <= scale || value.stripTrailingZeros().scale() <= scale;
+    }
+
+    /**
+     * Convert a decimal to units of the given scale, rounding HALF_UP like the
+     * database does when storing into a column of that scale.
+     *
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    public static long toUnits(BigDecimal value, int scale) {
+        return value.setScale(scale, RoundingMode.HALF_UP).scaleByPowerOfTen(scale).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long units, int scale) {
+        return BigDecimal.valueOf(units, scale);
+    }
+
+    // Integer division rounding half away from zero, as RoundingMode.HALF_UP does
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        long halfway = Math.abs(divisor) - remainder;
+        if (remainder >= halfway) {
+            quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+}
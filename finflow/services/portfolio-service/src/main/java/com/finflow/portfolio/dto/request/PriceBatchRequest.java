@@ -0,0 +1,47 @@
+package com.finflow.portfolio.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request DTO for repricing many symbols in one call (e.g. a market-close run).
+ */
+public record PriceBatchRequest(
+    @NotEmpty(message = "At least one price is required")
+    @Size(max = 10000, message = "A batch must not exceed 10000 prices")
+    List<@Valid @NotNull PriceUpdate> prices
+) {
+    /**
+     * A single (symbol, price) pair
+     */
+    public record PriceUpdate(
+        @NotBlank(message = "Symbol is required")
+        @Size(min = 1, max = 20, message = "Symbol must be between 1 and 20 characters")
+        String symbol,
+
+        @NotNull(message = "Price is required")
+        @Positive(message = "Price must be positive")
+        BigDecimal price
+    ) {}
+
+    /**
+     * Collapse the batch to one price per symbol. Symbols are upper-cased to match
+     * how holdings are stored, and later entries win over earlier ones.
+     */
+    public Map<String, BigDecimal> toPriceMap() {
+        Map<String, BigDecimal> pricesBySymbol = new LinkedHashMap<>();
+        for (PriceUpdate update : prices) {
+            pricesBySymbol.put(update.symbol().toUpperCase(), update.price());
+        }
+        return pricesBySymbol;
+    }
+}
@@ -0,0 +1,155 @@
+package com.finflow.portfolio.dto.response;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+/**
+ * Keyset-paginated response for list endpoints. Each page seeks past the sort
+ * key and id of the previous one instead of skipping an offset, and no count
+ * is run, so every page costs the same however deep it is.
+ *
+ * The cursors are opaque tokens encoding the position at the edge of this
+ * page; pass one back as {@code cursor} to fetch the next or previous page.
+ *
+ * @param <T> the type of content in the response
+ */
+public record CursorPage<T>(
+    List<T> content,
+    int size,
+    String nextCursor,
+    String previousCursor,
+    boolean hasNext,
+    boolean hasPrevious
+) {
+    public static final int MAX_SIZE = 100;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * Factory method to create CursorPage from a Spring Data Window with content mapping
+     *
+     * @param window    the window fetched at {@code requested}
+     * @param requested the position the window was fetched from
+     * @param mapper    function to convert entity to DTO
+     * @param <E> the entity type
+     * @param <D> the DTO type
+     * @return CursorPage with mapped content and cursors to the neighbouring pages
+     */
+    public static <E, D> CursorPage<D> from(Window<E> window, ScrollPosition requested, Function<E, D> mapper) {
+        List<D> mappedContent = window.getContent().stream()
+            .map(mapper)
+            .toList();
+
+        // A backward window still lists rows in sort order; its hasNext() means more rows before it
+        boolean backward = requested instanceof KeysetScrollPosition keyset && keyset.scrollsBackward();
+        boolean hasNext = backward || window.hasNext();
+        boolean hasPrevious = backward ? window.hasNext() : !requested.isInitial();
+
+        Map<String, ?> firstKeys;
+        Map<String, ?> lastKeys;
+        if (window.isEmpty()) {
+            // Past either end: the way back starts where the request did
+            firstKeys = lastKeys = requested.isInitial() ? null : ((KeysetScrollPosition) requested).getKeys();
+        } else {
+            firstKeys = keysAt(window, 0);
+            lastKeys = keysAt(window, window.size() - 1);
+        }
+
+        return new CursorPage<>(
+            mappedContent,
+            mappedContent.size(),
+            hasNext && lastKeys != null ? encode(ScrollPosition.forward(lastKeys)) : null,
+            hasPrevious && firstKeys != null ? encode(ScrollPosition.backward(firstKeys)) : null,
+            hasNext && lastKeys != null,
+            hasPrevious && firstKeys != null
+        );
+    }
+
+    /**
+     * Position to fetch for a cursor from a previous response.
+     *
+     * @param cursor the cursor, or null for the first page
+     * @throws IllegalArgumentException if the cursor was not issued by this service
+     */
+    public static ScrollPosition position(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String[] parts = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split("&");
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int i = 1; i < parts.length; i++) {
+                String[] key = parts[i].split("=", 3);
+                keys.put(key[0], decodeValue(key[1], URLDecoder.decode(key[2], StandardCharsets.UTF_8)));
+            }
+            return switch (parts[0]) {
+                case "f" -> ScrollPosition.forward(keys);
+                case "b" -> ScrollPosition.backward(keys);
+                default -> throw new IllegalArgumentException();
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Validate a requested page size.
+     */
+    public static Limit limit(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SIZE);
+        }
+        return Limit.of(size);
+    }
+
+    private static Map<String, ?> keysAt(Window<?> window, int index) {
+        return ((KeysetScrollPosition) window.positionAt(index)).getKeys();
+    }
+
+    // Keys are typed so they bind to the sort columns again when decoded
+    private static String encode(KeysetScrollPosition position) {
+        StringBuilder token = new StringBuilder(position.scrollsBackward() ? "b" : "f");
+        position.getKeys().forEach((name, value) -> token.append('&')
+            .append(name).append('=')
+            .append(typeOf(value)).append('=')
+            .append(URLEncoder.encode(value.toString(), StandardCharsets.UTF_8)));
+        return ENCODER.encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String typeOf(Object value) {
+        if (value instanceof String) {
+            return "s";
+        } else if (value instanceof LocalDateTime) {
+            return "t";
+        } else if (value instanceof BigDecimal) {
+            return "n";
+        } else if (value instanceof Long) {
+            return "l";
+        }
+        throw new IllegalStateException("Unsupported cursor key type " + value.getClass().getName());
+    }
+
+    private static Object decodeValue(String type, String value) {
+        return switch (type) {
+            case "s" -> value;
+            case "t" -> LocalDateTime.parse(value);
+            case "n" -> new BigDecimal(value);
+            case "l" -> Long.valueOf(value);
+            default -> throw new IllegalArgumentException();
+        };
+    }
+}
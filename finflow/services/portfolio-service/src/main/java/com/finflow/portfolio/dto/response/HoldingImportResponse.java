@@ -0,0 +1,14 @@
+package com.finflow.portfolio.dto.response;
+
+import java.math.BigDecimal;
+
+/**
+ * Result of a bulk holdings import.
+ */
+public record HoldingImportResponse(
+    String portfolioId,
+    int holdingsCreated,
+    int holdingsUpdated,
+    BigDecimal totalCost
+) {
+}
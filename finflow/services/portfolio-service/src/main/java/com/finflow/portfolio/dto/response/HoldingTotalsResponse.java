@@ -0,0 +1,18 @@
+package com.finflow.portfolio.dto.response;
+
+import com.finflow.portfolio.domain.AssetType;
+
+import java.math.BigDecimal;
+
+/**
+ * Response DTO for a user's holdings of one asset type, read from the
+ * maintained totals rather than summed from the holdings.
+ */
+public record HoldingTotalsResponse(
+    AssetType assetType,
+    long holdingsCount,
+    BigDecimal marketValue,
+    BigDecimal unrealizedPnL,
+    BigDecimal costBasis
+) {
+}
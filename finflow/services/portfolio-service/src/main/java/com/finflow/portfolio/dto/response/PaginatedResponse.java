@@ -1,6 +1,7 @@
 package com.finflow.portfolio.dto.response;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.function.Function;
@@ -9,19 +10,35 @@ import java.util.function.Function;
  * Generic paginated response wrapper for list endpoints.
  * Provides consistent pagination metadata across all endpoints.
  *
+ * Responses built from a {@link Slice} skip the count query: totalElements and
+ * totalPages are null, or an estimate when totalApproximate is set.
+ *
  * @param <T> the type of content in the response
  */
 public record PaginatedResponse<T>(
     List<T> content,
     int page,
     int size,
-    long totalElements,
-    int totalPages,
+    Long totalElements,
+    Integer totalPages,
+    boolean totalApproximate,
     boolean first,
     boolean last,
     boolean hasNext,
     boolean hasPrevious
 ) {
+    /**
+     * How a paginated endpoint reports the total, selected with the {@code count} request parameter.
+     */
+    public enum CountMode {
+        /** Run a count query for the exact total */
+        EXACT,
+        /** No total; only whether there is a next page */
+        NONE,
+        /** No count query; the total is estimated from database statistics */
+        APPROXIMATE
+    }
+
     /**
      * Factory method to create PaginatedResponse from Spring Data Page
      *
@@ -36,6 +53,7 @@ public record PaginatedResponse<T>(
             page.getSize(),
             page.getTotalElements(),
             page.getTotalPages(),
+            false,
             page.isFirst(),
             page.isLast(),
             page.hasNext(),
@@ -64,10 +82,61 @@ public record PaginatedResponse<T>(
             page.getSize(),
             page.getTotalElements(),
             page.getTotalPages(),
+            false,
             page.isFirst(),
             page.isLast(),
             page.hasNext(),
             page.hasPrevious()
         );
     }
+
+    /**
+     * Factory method to create PaginatedResponse from Spring Data Slice
+     *
+     * @param slice the Spring Data Slice
+     * @param approximateTotal estimated total, or null to report no total
+     * @param <T> the type of content
+     * @return PaginatedResponse with no exact total
+     */
+    public static <T> PaginatedResponse<T> fromSlice(Slice<T> slice, Long approximateTotal) {
+        return fromSlice(slice, Function.identity(), approximateTotal);
+    }
+
+    /**
+     * Factory method to create PaginatedResponse from Spring Data Slice with content mapping
+     *
+     * @param slice the Spring Data Slice of entities
+     * @param mapper function to convert entity to DTO
+     * @param approximateTotal estimated total, or null to report no total
+     * @param <E> the entity type
+     * @param <D> the DTO type
+     * @return PaginatedResponse with mapped content and no exact total
+     */
+    public static <E, D> PaginatedResponse<D> fromSlice(Slice<E> slice, Function<E, D> mapper, Long approximateTotal) {
+        List<D> mappedContent = slice.getContent().stream()
+            .map(mapper)
+            .toList();
+
+        Long totalElements = null;
+        Integer totalPages = null;
+        if (approximateTotal != null) {
+            // Never report fewer rows than this page has already shown exist
+            long seen = (long) slice.getNumber() * slice.getSize() + slice.getNumberOfElements();
+            totalElements = Math.max(approximateTotal, seen + (slice.hasNext() ? 1 : 0));
+            totalPages = slice.getSize() == 0 ? 1 : (int) Math.ceil((double) totalElements / slice.getSize());
+        }
+
+        return new PaginatedResponse<>(
+            mappedContent,
+            slice.getNumber(),
+            slice.getSize(),
+            totalElements,
+            totalPages,
+            approximateTotal != null,
+            slice.isFirst(),
+            slice.isLast(),
+            slice.hasNext(),
+            slice.hasPrevious()
+        );
+    }
 }
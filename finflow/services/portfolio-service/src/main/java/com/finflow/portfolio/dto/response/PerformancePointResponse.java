@@ -0,0 +1,17 @@
+package com.finflow.portfolio.dto.response;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Response DTO for one point of a portfolio value chart: the value at the end
+ * of the bucket starting at date, with the bucket's low and high.
+ */
+public record PerformancePointResponse(
+    Instant date,
+    BigDecimal value,
+    BigDecimal low,
+    BigDecimal high,
+    BigDecimal gainLoss
+) {
+}
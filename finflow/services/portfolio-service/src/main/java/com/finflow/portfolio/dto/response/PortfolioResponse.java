@@ -27,9 +27,18 @@ public record PortfolioResponse(
     LocalDateTime updatedAt
 ) {
     /**
-     * Factory method to create PortfolioResponse from Portfolio entity without holdings
+     * Factory method to create PortfolioResponse from Portfolio entity without holdings.
+     * Counts the holdings collection, so it loads it unless already loaded.
      */
     public static PortfolioResponse from(Portfolio portfolio) {
+        return from(portfolio, portfolio.getHoldings() != null ? portfolio.getHoldings().size() : 0);
+    }
+
+    /**
+     * Factory method to create PortfolioResponse from Portfolio entity without holdings,
+     * with the holdings counted by the caller (HoldingRepository.countByPortfolio_Id)
+     */
+    public static PortfolioResponse from(Portfolio portfolio, long holdingsCount) {
         return new PortfolioResponse(
             portfolio.getId(),
             portfolio.getUser() != null ? portfolio.getUser().getId() : null,
@@ -41,7 +50,7 @@ public record PortfolioResponse(
             portfolio.getDailyChangePercent(),
             portfolio.getTotalGainLoss(),
             portfolio.getTotalGainLossPercent(),
-            portfolio.getHoldings() != null ? portfolio.getHoldings().size() : 0,
+            Math.toIntExact(holdingsCount),
             null,  // Holdings not loaded by default
             portfolio.getCreatedAt(),
             portfolio.getUpdatedAt()
@@ -57,7 +66,14 @@ public record PortfolioResponse(
                 .map(HoldingResponse::from)
                 .toList()
             : List.of();
+        return fromWithHoldings(portfolio, holdingResponses);
+    }
 
+    /**
+     * Factory method to create PortfolioResponse from Portfolio entity with holdings
+     * already selected as responses (HoldingRepository.findResponsesByUserId)
+     */
+    public static PortfolioResponse fromWithHoldings(Portfolio portfolio, List<HoldingResponse> holdingResponses) {
         return new PortfolioResponse(
             portfolio.getId(),
             portfolio.getUser() != null ? portfolio.getUser().getId() : null,
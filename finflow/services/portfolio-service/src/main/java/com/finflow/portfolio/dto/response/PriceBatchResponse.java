@@ -0,0 +1,12 @@
+package com.finflow.portfolio.dto.response;
+
+/**
+ * Result of a batch revaluation run.
+ */
+public record PriceBatchResponse(
+    int symbolsReceived,
+    int symbolsRevalued,
+    int holdingsRevalued,
+    int portfoliosRefreshed
+) {
+}
@@ -0,0 +1,53 @@
+package com.finflow.portfolio.infrastructure.batch;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Walks a repository stream over a whole table in bounded heap.
+ *
+ * The persistence context is cleared every batch-size rows, so it never holds
+ * more than one batch of entities however many rows the stream returns. The
+ * streams are read-only, so nothing is flushed: changes the action makes to
+ * the entities are discarded. Must be called inside the transaction the
+ * stream was opened in; the stream is closed when the walk ends.
+ */
+@Component
+public class BoundedStreamProcessor {
+
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public BoundedStreamProcessor(
+            EntityManager entityManager,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Hand every row to the action, clearing the persistence context between batches.
+     *
+     * @return number of rows processed
+     */
+    public <T> long forEach(Stream<T> rows, Consumer<? super T> action) {
+        long processed = 0;
+        try (rows) {
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                if (++processed % batchSize == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        entityManager.clear();
+        return processed;
+    }
+}
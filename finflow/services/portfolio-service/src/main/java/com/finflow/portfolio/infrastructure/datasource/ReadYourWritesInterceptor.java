@@ -0,0 +1,123 @@
+package com.finflow.portfolio.infrastructure.datasource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Read-your-writes for replica routing. After a mutating request, reads inside
+ * the window are pinned to the primary; everyone else's keep going to the
+ * replica. The window is opened for two keys:
+ * <ul>
+ *   <li>the user, when the request path names a {userId}. Any client reading
+ *       that user's resources through a {userId} path, from any device or
+ *       service, then reads from the primary;</li>
+ *   <li>the client, through a cookie holding the end of its window. This
+ *       covers writes addressed by portfolio, holding or account ID, and
+ *       travels with the client to whichever instance serves its next read.</li>
+ * </ul>
+ *
+ * The per-user windows live in this instance. A read served by another
+ * instance only sees the cookie, so a client that drops cookies (curl,
+ * another service) can still read from the replica there, as it can after a
+ * write that names no user.
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    static final String COOKIE_NAME = "primary-reads-until";
+
+    private static final String USER_ID = "userId";
+    private static final int MAX_USERS = 100_000;
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final Duration window;
+    private final Cache<String, Long> userWindowEnds;
+
+    public ReadYourWritesInterceptor(Duration window) {
+        this.window = window;
+        this.userWindowEnds = Caffeine.newBuilder()
+            .expireAfterWrite(window)
+            .maximumSize(MAX_USERS)
+            .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long now = System.currentTimeMillis();
+        String userId = userId(request);
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            long windowEnd = now + window.toMillis();
+            // Set before the handler runs; the response may be committed by the time it returns
+            ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, Long.toString(windowEnd))
+                .path("/")
+                .maxAge(window)
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+            if (userId != null) {
+                userWindowEnds.put(userId, windowEnd);
+            }
+            ReplicaRoutingDataSource.pinToPrimary();
+        } else if (windowEnd(request) > now || userWindowEnd(userId) > now) {
+            ReplicaRoutingDataSource.pinToPrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        ReplicaRoutingDataSource.unpin();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // Streams are served by other threads; this one goes back to the pool
+        ReplicaRoutingDataSource.unpin();
+    }
+
+    private long userWindowEnd(String userId) {
+        if (userId == null) {
+            return 0;
+        }
+        Long windowEnd = userWindowEnds.getIfPresent(userId);
+        return windowEnd != null ? windowEnd : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String userId(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables instanceof Map ? ((Map<String, String>) variables).get(USER_ID) : null;
+    }
+
+    private static long windowEnd(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
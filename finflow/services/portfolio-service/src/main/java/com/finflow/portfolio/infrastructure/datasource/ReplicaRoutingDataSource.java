@@ -0,0 +1,50 @@
+package com.finflow.portfolio.infrastructure.datasource;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Source of connections for read-only transactions: the replica pool, unless
+ * the current thread has been pinned to the primary.
+ *
+ * A thread is pinned while it serves a client or user inside its
+ * read-your-writes window (see {@link ReadYourWritesInterceptor}), so a read following a write
+ * never observes replication lag. Writes do not go through this DataSource at all.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private enum Target { PRIMARY, REPLICA }
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(replica);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Send the read-only transactions of the current thread to the primary
+     * until {@link #unpin()} is called.
+     */
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return isPinnedToPrimary() ? Target.PRIMARY : Target.REPLICA;
+    }
+}
@@ -0,0 +1,167 @@
+package com.finflow.portfolio.infrastructure.history;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.finflow.portfolio.domain.SnapshotResolution;
+
+/**
+ * Day partitions of portfolio_value_snapshots on PostgreSQL, where
+ * V4__partition_value_snapshots.sql splits RAW, FIVE_MINUTES and HOURLY rows by
+ * the UTC day of bucket_start.
+ *
+ * Partitions are created {@value #DAYS_AHEAD} days ahead, and a day whose every
+ * bucket has left retention is dropped whole instead of deleted row by row. Rows
+ * written before their day's partition existed sit in the default partition;
+ * creating the partition moves them into it. On a database without the
+ * partitioned table (H2) every method does nothing and retention is the range
+ * delete alone.
+ *
+ * Both methods run in the caller's transaction, so the partition changes commit
+ * or roll back with the capture or rollup that made them, and prepare only
+ * records its progress once they have committed. Until then they hold locks
+ * that block writes to the resolution's partitions.
+ */
+@Component
+public class SnapshotPartitions {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotPartitions.class);
+
+    private static final String TABLE = "portfolio_value_snapshots";
+    private static final Set<SnapshotResolution> BY_DAY =
+        EnumSet.of(SnapshotResolution.RAW, SnapshotResolution.FIVE_MINUTES, SnapshotResolution.HOURLY);
+    private static final int DAYS_AHEAD = 3;
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean partitioned;
+    private volatile LocalDate preparedThrough;
+
+    public SnapshotPartitions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Create the day partitions from the day of now through {@value #DAYS_AHEAD}
+     * days later, unless an earlier committed call already has.
+     */
+    public void prepare(Instant now) {
+        LocalDate today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+        LocalDate last = today.plusDays(DAYS_AHEAD);
+        LocalDate prepared = preparedThrough;
+        if ((prepared != null && !prepared.isBefore(last)) || !isPartitioned()) {
+            return;
+        }
+        for (SnapshotResolution resolution : BY_DAY) {
+            for (LocalDate day = today; !day.isAfter(last); day = day.plusDays(1)) {
+                createDay(resolution, day);
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A rollback undoes the partitions, so the next call has to create them again
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    preparedThrough = last;
+                }
+            });
+        } else {
+            preparedThrough = last;
+        }
+    }
+
+    /**
+     * Drop the day partitions of a resolution that end at or before the cutoff.
+     *
+     * @return number of partitions dropped
+     */
+    public int dropBefore(SnapshotResolution resolution, Instant cutoff) {
+        if (!BY_DAY.contains(resolution) || !isPartitioned()) {
+            return 0;
+        }
+        // A day partition ends at midnight after its day, so it is past the cutoff when its day is
+        LocalDate firstKept = LocalDate.ofInstant(cutoff, ZoneOffset.UTC);
+        String prefix = parent(resolution) + "_p";
+        List<String> children = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ?", String.class, parent(resolution));
+
+        int dropped = 0;
+        for (String child : children) {
+            if (!child.startsWith(prefix)) {
+                continue;  // the default partition
+            }
+            LocalDate day;
+            try {
+                day = LocalDate.parse(child.substring(prefix.length()), DAY);
+            } catch (DateTimeParseException e) {
+                log.warn("Skipping snapshot partition {}, which is not named after its day", child);
+                continue;
+            }
+            if (day.isBefore(firstKept)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + child);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private void createDay(SnapshotResolution resolution, LocalDate day) {
+        String parent = parent(resolution);
+        String partition = parent + "_p" + day.format(DAY);
+        Instant from = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant to = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        String bounds = " FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+        String inDay = " WHERE bucket_start >= '" + from + "' AND bucket_start < '" + to + "'";
+
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition);
+        if (Boolean.TRUE.equals(exists)) {
+            return;
+        }
+        Boolean inDefault = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM " + parent + "_default" + inDay + ")", Boolean.class);
+        if (!Boolean.TRUE.equals(inDefault)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + parent + bounds);
+            return;
+        }
+        // Attaching over rows still in the default would fail, so they move into the new table first
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + parent + " INCLUDING DEFAULTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + parent + "_default" + inDay +
+            " RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved");
+        jdbcTemplate.execute("ALTER TABLE " + parent + " ATTACH PARTITION " + partition + bounds);
+        log.info("Moved {} snapshots from the default partition into {}", moved, partition);
+    }
+
+    private static String parent(SnapshotResolution resolution) {
+        return TABLE + "_" + resolution.name().toLowerCase(Locale.ROOT);
+    }
+
+    private boolean isPartitioned() {
+        Boolean known = partitioned;
+        if (known == null) {
+            String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            known = "PostgreSQL".equals(product) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                "WHERE c.relname = ?)", Boolean.class, TABLE));
+            partitioned = known;
+        }
+        return known;
+    }
+}
@@ -0,0 +1,144 @@
+package com.finflow.portfolio.infrastructure.importer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finflow.portfolio.domain.AssetType;
+import com.finflow.portfolio.dto.request.CreateHoldingRequest;
+
+/**
+ * Reads holdings one line at a time from an NDJSON or CSV upload, so only the
+ * current line is ever held in memory.
+ *
+ * NDJSON lines are objects with the fields of {@link CreateHoldingRequest}. CSV
+ * input starts with a header naming the columns {@code symbol}, {@code quantity},
+ * {@code averageCost}, {@code assetType} and optionally {@code exchange}, in any
+ * order; quoted fields are not supported. Blank lines are skipped in both.
+ */
+public class HoldingImportReader implements Closeable {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+
+    private Map<String, Integer> csvColumns;
+    private int lineNumber;
+
+    public HoldingImportReader(InputStream input, Format format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Read the next holding.
+     *
+     * @return the holding, or null at the end of the input
+     * @throws IllegalArgumentException if the line cannot be parsed
+     */
+    public CreateHoldingRequest next() {
+        String line = nextLine();
+        if (line != null && format == Format.CSV && csvColumns == null) {
+            csvColumns = parseHeader(line);
+            line = nextLine();
+        }
+        if (line == null) {
+            return null;
+        }
+        return format == Format.NDJSON ? parseJson(line) : parseCsv(line);
+    }
+
+    /**
+     * Line number of the holding last returned by {@link #next()}, for error messages.
+     */
+    public int lineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String nextLine() {
+        try {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+            } while (line != null && line.isBlank());
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import at line " + lineNumber, e);
+        }
+    }
+
+    private CreateHoldingRequest parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, CreateHoldingRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        String[] names = line.split(",", -1);
+        for (int i = 0; i < names.length; i++) {
+            columns.put(names[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : new String[] {"symbol", "quantity", "averagecost", "assettype"}) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column " + required);
+            }
+        }
+        return columns;
+    }
+
+    private CreateHoldingRequest parseCsv(String line) {
+        String[] fields = line.split(",", -1);
+        try {
+            return new CreateHoldingRequest(
+                field(fields, "symbol"),
+                decimal(field(fields, "quantity")),
+                decimal(field(fields, "averagecost")),
+                assetType(field(fields, "assettype")),
+                field(fields, "exchange"));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage());
+        }
+    }
+
+    // Missing or empty fields come back as null and are reported by validation
+    private String field(String[] fields, String column) {
+        Integer index = csvColumns.get(column);
+        if (index == null || index >= fields.length || fields[index].isBlank()) {
+            return null;
+        }
+        return fields[index].trim();
+    }
+
+    private static BigDecimal decimal(String value) {
+        return value != null ? new BigDecimal(value) : null;
+    }
+
+    private static AssetType assetType(String value) {
+        return value != null ? AssetType.valueOf(value.toUpperCase(Locale.ROOT)) : null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.finflow.portfolio.infrastructure.index;
+
+import java.math.BigDecimal;
+
+import com.finflow.portfolio.domain.AssetType;
+import com.finflow.portfolio.domain.ValuationKernel;
+
+/**
+ * The slice of a {@link com.finflow.portfolio.domain.Holding} needed to fan a
+ * price tick out to the positions it affects. Quantity, average cost and
+ * market value are kept as {@link ValuationKernel} units so revaluation can
+ * compute value deltas without touching BigDecimal.
+ */
+public record IndexedPosition(
+    String holdingId,
+    String portfolioId,
+    String symbol,
+    AssetType assetType,
+    long quantity,
+    long averageCost,
+    long marketValue
+) {
+
+    public IndexedPosition(
+            String holdingId,
+            String portfolioId,
+            String symbol,
+            AssetType assetType,
+            BigDecimal quantity,
+            BigDecimal averageCost,
+            BigDecimal marketValue) {
+        this(
+            holdingId,
+            portfolioId,
+            symbol,
+            assetType,
+            ValuationKernel.toUnits(quantity, ValuationKernel.QUANTITY_SCALE),
+            ValuationKernel.toUnits(averageCost, ValuationKernel.PRICE_SCALE),
+            marketValue != null ? ValuationKernel.toUnits(marketValue, ValuationKernel.VALUE_SCALE) : 0L);
+    }
+
+    public IndexedPosition withMarketValue(long marketValue) {
+        return new IndexedPosition(holdingId, portfolioId, symbol, assetType, quantity, averageCost, marketValue);
+    }
+}
@@ -0,0 +1,19 @@
+package com.finflow.portfolio.infrastructure.index;
+
+import java.util.Locale;
+
+/**
+ * The searchable fields of a {@link com.finflow.portfolio.domain.User}, lower-cased
+ * once so matching in the {@link TrigramIndex} is case-insensitive.
+ */
+public record IndexedUser(
+    String userId,
+    String username,
+    String email
+) {
+
+    public IndexedUser {
+        username = username.toLowerCase(Locale.ROOT);
+        email = email.toLowerCase(Locale.ROOT);
+    }
+}
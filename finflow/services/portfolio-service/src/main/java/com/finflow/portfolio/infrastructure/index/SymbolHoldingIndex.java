@@ -0,0 +1,274 @@
+package com.finflow.portfolio.infrastructure.index;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finflow.portfolio.domain.Holding;
+import com.finflow.portfolio.repository.HoldingRepository;
+
+/**
+ * Concurrent in-memory inverted index from symbol to the positions holding it.
+ * Lets a price tick find the affected holdings and portfolios without a query.
+ *
+ * The index is rebuilt from the database on startup and verified against it
+ * periodically. Until the first build completes {@link #isReady()} is false and
+ * callers must fall back to the database.
+ */
+@Component
+public class SymbolHoldingIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SymbolHoldingIndex.class);
+
+    private static final int MAX_BUILD_ATTEMPTS = 3;
+
+    private final HoldingRepository holdingRepository;
+
+    // Snapshots stream through a cursor, which needs a transaction; kept on the primary so they match the writes
+    private final TransactionTemplate snapshotTransaction;
+
+    // Bumped on every applied mutation so a rebuild can tell whether it raced with a write
+    private final AtomicLong mutations = new AtomicLong();
+
+    private volatile Map<String, Map<String, IndexedPosition>> positionsBySymbol = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public SymbolHoldingIndex(HoldingRepository holdingRepository, PlatformTransactionManager transactionManager) {
+        this.holdingRepository = holdingRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean containsSymbol(String symbol) {
+        return positionsBySymbol.containsKey(symbol);
+    }
+
+    public Collection<IndexedPosition> positionsFor(String symbol) {
+        Map<String, IndexedPosition> positions = positionsBySymbol.get(symbol);
+        return positions != null ? positions.values() : List.of();
+    }
+
+    /**
+     * Insert or replace the position for a holding once the current transaction commits.
+     */
+    public void upsert(Holding holding) {
+        IndexedPosition position = toPosition(holding);
+        afterCommit(() -> {
+            positionsBySymbol
+                .computeIfAbsent(position.symbol(), symbol -> new ConcurrentHashMap<>())
+                .put(position.holdingId(), position);
+            mutations.incrementAndGet();
+        });
+    }
+
+    /**
+     * Remove the position for a holding once the current transaction commits.
+     */
+    public void remove(Holding holding) {
+        String symbol = holding.getSymbol();
+        String holdingId = holding.getId();
+        afterCommit(() -> {
+            positionsBySymbol.computeIfPresent(symbol, (key, positions) -> {
+                positions.remove(holdingId);
+                return positions.isEmpty() ? null : positions;
+            });
+            mutations.incrementAndGet();
+        });
+    }
+
+    /**
+     * Record new market values for positions of a symbol once the current
+     * transaction commits, after a revaluation has written them to the database.
+     *
+     * @param symbol        the repriced symbol
+     * @param marketValues  new market value in kernel units, by holding ID
+     */
+    public void reprice(String symbol, Map<String, Long> marketValues) {
+        afterCommit(() -> {
+            Map<String, IndexedPosition> positions = positionsBySymbol.get(symbol);
+            if (positions != null) {
+                marketValues.forEach((holdingId, marketValue) ->
+                    positions.computeIfPresent(holdingId, (id, position) -> position.withMarketValue(marketValue)));
+            }
+            mutations.incrementAndGet();
+        });
+    }
+
+    /**
+     * Drop every position of a portfolio once the current transaction commits.
+     * Scans all symbols, which is fine for the rare portfolio deletion.
+     */
+    public void removePortfolio(String portfolioId) {
+        afterCommit(() -> {
+            for (String symbol : positionsBySymbol.keySet()) {
+                positionsBySymbol.computeIfPresent(symbol, (key, positions) -> {
+                    positions.values().removeIf(position -> portfolioId.equals(position.portfolioId()));
+                    return positions.isEmpty() ? null : positions;
+                });
+            }
+            mutations.incrementAndGet();
+        });
+    }
+
+    /**
+     * Reload every position of a portfolio from the database once the current
+     * transaction commits, for bulk writes that do not keep their entities.
+     */
+    public void reloadPortfolio(String portfolioId) {
+        afterCommit(() -> {
+            for (IndexedPosition position : holdingRepository.findIndexedPositionsByPortfolioId(portfolioId)) {
+                positionsBySymbol
+                    .computeIfAbsent(position.symbol(), symbol -> new ConcurrentHashMap<>())
+                    .put(position.holdingId(), position);
+            }
+            mutations.incrementAndGet();
+        });
+    }
+
+    /**
+     * Replace every position of a symbol with the database's once the current
+     * transaction commits, for revaluations that found the index out of step.
+     */
+    public void reloadSymbol(String symbol) {
+        afterCommit(() -> {
+            Map<String, IndexedPosition> positions = new ConcurrentHashMap<>();
+            for (IndexedPosition position : holdingRepository.findIndexedPositionsBySymbol(symbol)) {
+                positions.put(position.holdingId(), position);
+            }
+            if (positions.isEmpty()) {
+                positionsBySymbol.remove(symbol);
+            } else {
+                positionsBySymbol.put(symbol, positions);
+            }
+            mutations.incrementAndGet();
+        });
+    }
+
+    /**
+     * Build the index from the database. Writes that land while the snapshot is
+     * loading trigger a reload; if writes keep racing, the last snapshot is used
+     * and the periodic verification repairs whatever it missed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        Map<String, Map<String, IndexedPosition>> snapshot;
+        for (int attempt = 1; ; attempt++) {
+            long mutationsBefore = mutations.get();
+            snapshot = loadSnapshot();
+            if (mutations.get() == mutationsBefore || attempt == MAX_BUILD_ATTEMPTS) {
+                break;
+            }
+        }
+        positionsBySymbol = snapshot;
+        ready = true;
+        log.info("Built symbol index with {} symbols in {} ms",
+            snapshot.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Compare the index with the database and replace it if they drifted apart.
+     * A snapshot that raced with a concurrent write is discarded and retried on
+     * the next run rather than risk dropping that write.
+     */
+    @Scheduled(
+        fixedDelayString = "${app.index.holdings.verify-interval-ms:600000}",
+        initialDelayString = "${app.index.holdings.verify-interval-ms:600000}")
+    public void verify() {
+        if (!ready) {
+            return;
+        }
+
+        long mutationsBefore = mutations.get();
+        Map<String, Map<String, IndexedPosition>> snapshot = loadSnapshot();
+        int drifted = countDrift(positionsBySymbol, snapshot);
+        if (drifted == 0) {
+            return;
+        }
+        if (mutations.get() != mutationsBefore) {
+            log.info("Symbol index changed during verification, retrying on next run");
+            return;
+        }
+
+        positionsBySymbol = snapshot;
+        log.warn("Symbol index drifted from the database by {} positions, replaced with fresh snapshot", drifted);
+    }
+
+    private Map<String, Map<String, IndexedPosition>> loadSnapshot() {
+        Map<String, Map<String, IndexedPosition>> snapshot = new ConcurrentHashMap<>();
+        snapshotTransaction.executeWithoutResult(status -> {
+            try (Stream<IndexedPosition> positions = holdingRepository.streamAllIndexedPositions()) {
+                positions.forEach(position -> snapshot
+                    .computeIfAbsent(position.symbol(), symbol -> new ConcurrentHashMap<>())
+                    .put(position.holdingId(), position));
+            }
+        });
+        return snapshot;
+    }
+
+    private static int countDrift(
+            Map<String, Map<String, IndexedPosition>> current,
+            Map<String, Map<String, IndexedPosition>> expected) {
+        int drifted = 0;
+        Set<String> symbols = new HashSet<>(current.keySet());
+        symbols.addAll(expected.keySet());
+        for (String symbol : symbols) {
+            Map<String, IndexedPosition> actual = current.getOrDefault(symbol, Map.of());
+            Map<String, IndexedPosition> wanted = expected.getOrDefault(symbol, Map.of());
+            for (IndexedPosition position : wanted.values()) {
+                if (!position.equals(actual.get(position.holdingId()))) {
+                    drifted++;
+                }
+            }
+            for (String holdingId : actual.keySet()) {
+                if (!wanted.containsKey(holdingId)) {
+                    drifted++;
+                }
+            }
+        }
+        return drifted;
+    }
+
+    private static IndexedPosition toPosition(Holding holding) {
+        return new IndexedPosition(
+            holding.getId(),
+            holding.getPortfolio() != null ? holding.getPortfolio().getId() : null,
+            holding.getSymbol(),
+            holding.getAssetType(),
+            holding.getQuantity(),
+            holding.getAverageCost(),
+            holding.getMarketValue());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,211 @@
+package com.finflow.portfolio.infrastructure.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Inverted index from every three-character sequence of a username or email to
+ * the users containing it, answering case-insensitive substring searches.
+ *
+ * A search scans the posting list of the term's rarest trigram and checks each
+ * candidate against the term, so its cost is that list's length rather than
+ * the number of users. Every user occupies a slot; updating a user gives it a
+ * new slot and leaves the old one empty, so posting lists only grow and can be
+ * read without locking. Empty slots are dropped when the index is rebuilt.
+ *
+ * Writes are serialized; searches run concurrently with them.
+ */
+public final class TrigramIndex {
+
+    /**
+     * Shortest term the index can answer; shorter terms have no trigram
+     */
+    public static final int MIN_TERM_LENGTH = 3;
+
+    /**
+     * Ranked matches of a search: the requested page of user IDs, best first,
+     * and the number of users matching overall.
+     */
+    public record Matches(List<String> userIds, long total) {
+    }
+
+    // Exact username, username prefix, username substring, email prefix, email substring
+    private static final Comparator<Ranked> BEST_FIRST = Comparator
+        .comparingInt(Ranked::tier)
+        .thenComparingInt(ranked -> ranked.user().username().length())
+        .thenComparing(ranked -> ranked.user().username())
+        .thenComparing(ranked -> ranked.user().userId());
+
+    private record Ranked(int tier, IndexedUser user) {
+    }
+
+    private final Map<Long, PostingList> postings = new ConcurrentHashMap<>();
+    private final Map<String, Integer> slotByUser = new ConcurrentHashMap<>();
+    private volatile AtomicReferenceArray<IndexedUser> usersBySlot = new AtomicReferenceArray<>(1024);
+    private int nextSlot;
+
+    /**
+     * Insert a user, or replace its previous username and email.
+     */
+    public synchronized void put(IndexedUser user) {
+        Integer previous = slotByUser.get(user.userId());
+        if (previous != null) {
+            IndexedUser current = usersBySlot.get(previous);
+            if (user.equals(current)) {
+                return;
+            }
+            usersBySlot.set(previous, null);
+        }
+
+        int slot = nextSlot++;
+        if (slot == usersBySlot.length()) {
+            AtomicReferenceArray<IndexedUser> grown = new AtomicReferenceArray<>(slot * 2);
+            for (int i = 0; i < slot; i++) {
+                grown.set(i, usersBySlot.get(i));
+            }
+            usersBySlot = grown;
+        }
+        usersBySlot.set(slot, user);
+        slotByUser.put(user.userId(), slot);
+
+        Set<Long> trigrams = new HashSet<>();
+        addTrigrams(user.username(), trigrams);
+        addTrigrams(user.email(), trigrams);
+        for (Long trigram : trigrams) {
+            postings.computeIfAbsent(trigram, key -> new PostingList()).add(slot);
+        }
+    }
+
+    public synchronized void remove(String userId) {
+        Integer slot = slotByUser.remove(userId);
+        if (slot != null) {
+            usersBySlot.set(slot, null);
+        }
+    }
+
+    public int size() {
+        return slotByUser.size();
+    }
+
+    /**
+     * Users whose username or email contains the term, ignoring case, ranked
+     * best first.
+     *
+     * @param term   the search term, at least {@link #MIN_TERM_LENGTH} characters
+     * @param offset number of ranked matches to skip
+     * @param limit  maximum number of user IDs to return
+     */
+    public Matches search(String term, int offset, int limit) {
+        String needle = term.toLowerCase(Locale.ROOT);
+        if (needle.length() < MIN_TERM_LENGTH) {
+            throw new IllegalArgumentException("Search term must have at least " + MIN_TERM_LENGTH + " characters");
+        }
+
+        PostingList rarest = null;
+        Set<Long> trigrams = new HashSet<>();
+        addTrigrams(needle, trigrams);
+        for (Long trigram : trigrams) {
+            PostingList list = postings.get(trigram);
+            if (list == null) {
+                return new Matches(List.of(), 0);
+            }
+            if (rarest == null || list.size < rarest.size) {
+                rarest = list;
+            }
+        }
+
+        // Keeps the best offset + limit matches; the worst is at the head
+        int wanted = offset + limit;
+        PriorityQueue<Ranked> best = new PriorityQueue<>(Math.min(wanted, 1024) + 1, BEST_FIRST.reversed());
+        AtomicReferenceArray<IndexedUser> users = usersBySlot;
+        int size = rarest.size;
+        int[] slots = rarest.slots;
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            int slot = slots[i];
+            IndexedUser user = slot < users.length() ? users.get(slot) : null;
+            if (user == null) {
+                continue;
+            }
+            int tier = tier(user, needle);
+            if (tier < 0) {
+                continue;
+            }
+            total++;
+            if (wanted == 0) {
+                continue;
+            }
+            Ranked ranked = new Ranked(tier, user);
+            if (best.size() < wanted) {
+                best.add(ranked);
+            } else if (BEST_FIRST.compare(ranked, best.peek()) < 0) {
+                best.poll();
+                best.add(ranked);
+            }
+        }
+
+        List<Ranked> ranked = new ArrayList<>(best);
+        ranked.sort(BEST_FIRST);
+        List<String> page = ranked.subList(Math.min(offset, ranked.size()), ranked.size()).stream()
+            .map(match -> match.user().userId())
+            .toList();
+        return new Matches(page, total);
+    }
+
+    private static int tier(IndexedUser user, String needle) {
+        String username = user.username();
+        if (username.equals(needle)) {
+            return 0;
+        }
+        if (username.startsWith(needle)) {
+            return 1;
+        }
+        if (username.contains(needle)) {
+            return 2;
+        }
+        String email = user.email();
+        if (email.startsWith(needle)) {
+            return 3;
+        }
+        if (email.contains(needle)) {
+            return 4;
+        }
+        return -1;
+    }
+
+    private static void addTrigrams(String text, Set<Long> trigrams) {
+        for (int i = 0; i + MIN_TERM_LENGTH <= text.length(); i++) {
+            trigrams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+    }
+
+    /**
+     * Append-only list of slots. Writers are serialized by the index; a reader
+     * takes the size first, and every slot below it is visible in the array it
+     * reads next.
+     */
+    private static final class PostingList {
+
+        private volatile int[] slots = new int[4];
+        private volatile int size;
+
+        void add(int slot) {
+            int[] current = slots;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+                slots = current;
+            }
+            current[size] = slot;
+            size = size + 1;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.finflow.portfolio.infrastructure.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finflow.portfolio.domain.User;
+import com.finflow.portfolio.repository.UserRepository;
+
+/**
+ * In-memory {@link TrigramIndex} over usernames and emails, so user search does
+ * not scan the users table with a leading-wildcard LIKE.
+ *
+ * The index is built from the database on startup and rebuilt periodically to
+ * drop the slots left behind by updates and deletions. Until the first build
+ * completes, and for terms too short to have a trigram, {@link #search} is
+ * empty and callers must fall back to the database.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    // A user to put, or only an ID to remove
+    private record Mutation(String userId, IndexedUser user) {
+    }
+
+    private final UserRepository userRepository;
+
+    // Snapshots stream through a cursor, which needs a transaction; kept on the primary so they match the writes
+    private final TransactionTemplate snapshotTransaction;
+
+    private volatile TrigramIndex index = new TrigramIndex();
+    private volatile boolean ready;
+
+    // Writes applied while a rebuild is loading, replayed onto the new index before it is swapped in; guarded by this
+    private List<Mutation> pendingMutations;
+
+    public UserSearchIndex(UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Users whose username or email contains the term, ignoring case, ranked
+     * exact username first, then username prefix, username substring, email
+     * prefix and email substring.
+     *
+     * @return the requested page of ranked matches, or empty if the index cannot answer
+     */
+    public Optional<TrigramIndex.Matches> search(String term, int offset, int limit) {
+        if (!ready || term == null || term.length() < TrigramIndex.MIN_TERM_LENGTH) {
+            return Optional.empty();
+        }
+        return Optional.of(index.search(term, offset, limit));
+    }
+
+    /**
+     * Insert or replace a user once the current transaction commits.
+     */
+    public void upsert(User user) {
+        Mutation mutation = new Mutation(user.getId(), new IndexedUser(user.getId(), user.getUsername(), user.getEmail()));
+        afterCommit(() -> apply(mutation));
+    }
+
+    /**
+     * Remove a user once the current transaction commits.
+     */
+    public void remove(String userId) {
+        Mutation mutation = new Mutation(userId, null);
+        afterCommit(() -> apply(mutation));
+    }
+
+    /**
+     * Build the index from the database on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        TrigramIndex fresh = loadSnapshot();
+        ready = true;
+        log.info("Built user search index with {} users in {} ms",
+            fresh.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Replace the index with a fresh build, reclaiming the slots of updated and
+     * deleted users.
+     */
+    @Scheduled(
+        fixedDelayString = "${app.index.users.rebuild-interval-ms:3600000}",
+        initialDelayString = "${app.index.users.rebuild-interval-ms:3600000}")
+    public void compact() {
+        if (ready) {
+            loadSnapshot();
+        }
+    }
+
+    private synchronized void apply(Mutation mutation) {
+        apply(index, mutation);
+        if (pendingMutations != null) {
+            pendingMutations.add(mutation);
+        }
+    }
+
+    /**
+     * Load every user into a new index and swap it in. A write that commits while
+     * the snapshot loads may or may not be in it, so writes are recorded and
+     * replayed on top; replaying a write the snapshot already saw is harmless.
+     */
+    private TrigramIndex loadSnapshot() {
+        synchronized (this) {
+            pendingMutations = new ArrayList<>();
+        }
+        TrigramIndex fresh = new TrigramIndex();
+        try {
+            snapshotTransaction.executeWithoutResult(status -> {
+                try (Stream<IndexedUser> users = userRepository.streamAllIndexedUsers()) {
+                    users.forEach(fresh::put);
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingMutations = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            pendingMutations.forEach(mutation -> apply(fresh, mutation));
+            pendingMutations = null;
+            index = fresh;
+        }
+        return fresh;
+    }
+
+    private static void apply(TrigramIndex target, Mutation mutation) {
+        if (mutation.user() != null) {
+            target.put(mutation.user());
+        } else {
+            target.remove(mutation.userId());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
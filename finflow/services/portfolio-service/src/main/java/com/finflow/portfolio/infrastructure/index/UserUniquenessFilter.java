@@ -0,0 +1,149 @@
+package com.finflow.portfolio.infrastructure.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finflow.portfolio.domain.User;
+import com.finflow.portfolio.repository.UserRepository;
+
+/**
+ * Bloom filters of the usernames and emails in use, so signups and profile
+ * updates with a new username or email skip the existence queries.
+ *
+ * Values are stored lower-cased, which only adds false positives to the
+ * case-sensitive checks. A false positive costs the existence query the
+ * filter would have saved; a value taken by a write this instance has not seen
+ * is caught by the unique constraint. The filters are built on startup and
+ * rebuilt periodically, which drops values freed by deleted or renamed users
+ * and resizes them for the current user count. Until the first build completes
+ * every value might be taken.
+ */
+@Component
+public class UserUniquenessFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(UserUniquenessFilter.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    // Room for signups between rebuilds before the false-positive rate degrades
+    private static final double GROWTH_HEADROOM = 2.0;
+
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+
+        void add(IndexedUser user) {
+            usernames.add(user.username());
+            emails.add(user.email());
+        }
+    }
+
+    private final UserRepository userRepository;
+
+    // Snapshots stream through a cursor, which needs a transaction; kept on the primary so they match the writes
+    private final TransactionTemplate snapshotTransaction;
+
+    private volatile Filters filters;
+
+    // Values added while a rebuild is loading, replayed onto the new filters before they are swapped in; guarded by this
+    private List<IndexedUser> pendingUsers;
+
+    public UserUniquenessFilter(UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return false only if no user has this username
+     */
+    public boolean mightHaveUsername(String username) {
+        Filters current = filters;
+        return current == null || current.usernames().mightContain(username.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @return false only if no user has this email
+     */
+    public boolean mightHaveEmail(String email) {
+        Filters current = filters;
+        return current == null || current.emails().mightContain(email.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Record a user's username and email straight away rather than after commit,
+     * so a concurrent request sees them as taken as early as possible. A rolled
+     * back write leaves a false positive until the next rebuild.
+     */
+    public synchronized void add(User user) {
+        IndexedUser values = new IndexedUser(user.getId(), user.getUsername(), user.getEmail());
+        Filters current = filters;
+        if (current != null) {
+            current.add(values);
+        }
+        if (pendingUsers != null) {
+            pendingUsers.add(values);
+        }
+    }
+
+    /**
+     * Build the filters from the database on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        long users = loadSnapshot();
+        log.info("Built username and email filters for {} users in {} ms",
+            users, System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Rebuild the filters, dropping freed values and resizing for growth.
+     */
+    @Scheduled(
+        fixedDelayString = "${app.index.users.rebuild-interval-ms:3600000}",
+        initialDelayString = "${app.index.users.rebuild-interval-ms:3600000}")
+    public void compact() {
+        if (filters != null) {
+            loadSnapshot();
+        }
+    }
+
+    private long loadSnapshot() {
+        synchronized (this) {
+            pendingUsers = new ArrayList<>();
+        }
+        try {
+            long expected = (long) (userRepository.count() * GROWTH_HEADROOM) + 1024;
+            Filters fresh = new Filters(
+                new BloomFilter(expected, FALSE_POSITIVE_RATE),
+                new BloomFilter(expected, FALSE_POSITIVE_RATE));
+            long[] loaded = new long[1];
+            snapshotTransaction.executeWithoutResult(status -> {
+                try (Stream<IndexedUser> users = userRepository.streamAllIndexedUsers()) {
+                    users.forEach(user -> {
+                        fresh.add(user);
+                        loaded[0]++;
+                    });
+                }
+            });
+            synchronized (this) {
+                pendingUsers.forEach(fresh::add);
+                filters = fresh;
+            }
+            return loaded[0];
+        } finally {
+            synchronized (this) {
+                pendingUsers = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.finflow.portfolio.infrastructure.kafka;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.finflow.portfolio.application.RevaluationService;
+import com.finflow.portfolio.dto.response.PriceBatchResponse;
+import com.finflow.portfolio.infrastructure.kafka.event.PriceTickEvent;
+import com.finflow.portfolio.infrastructure.valuation.ValuationWriteBehindBuffer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Consumes market-data price ticks in batches. Each poll is conflated to the last
+ * price per symbol before it is handed to {@link RevaluationService}, so a burst of
+ * hundreds of ticks for one symbol costs a single revaluation. With write-behind
+ * enabled the conflated prices go to {@link ValuationWriteBehindBuffer} instead.
+ *
+ * "Last" is by event time: a symbol's ticks can arrive on several partitions, and
+ * offsets only order them within one. A tick no newer than the last one handed on
+ * for its symbol, in this poll or an earlier one, is dropped.
+ */
+@Component
+public class PriceTickConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceTickConsumer.class);
+
+    private final RevaluationService revaluationService;
+    private final ValuationWriteBehindBuffer writeBehindBuffer;
+    private final Counter ticksReceived;
+    private final Counter symbolsFlushed;
+    private final DistributionSummary conflationRatio;
+    private final AtomicLong consumerLag = new AtomicLong();
+    private final Map<String, Instant> lastTickTimes = new ConcurrentHashMap<>();
+
+    public PriceTickConsumer(
+            RevaluationService revaluationService,
+            ValuationWriteBehindBuffer writeBehindBuffer,
+            MeterRegistry meterRegistry) {
+        this.revaluationService = revaluationService;
+        this.writeBehindBuffer = writeBehindBuffer;
+        this.ticksReceived = Counter.builder("portfolio.price.ticks.received")
+            .description("Price ticks consumed from Kafka")
+            .register(meterRegistry);
+        this.symbolsFlushed = Counter.builder("portfolio.price.ticks.flushed")
+            .description("Symbols revalued after per-poll conflation")
+            .register(meterRegistry);
+        this.conflationRatio = DistributionSummary.builder("portfolio.price.ticks.conflation.ratio")
+            .description("Ticks received per symbol revalued, per poll")
+            .register(meterRegistry);
+        Gauge.builder("portfolio.price.ticks.lag", consumerLag, AtomicLong::get)
+            .description("Records behind the log end across assigned partitions, sampled per poll")
+            .register(meterRegistry);
+    }
+
+    @KafkaListener(
+        topics = "${app.kafka.topics.price-ticks}",
+        containerFactory = "priceTickListenerContainerFactory",
+        autoStartup = "${app.kafka.price-ticks.enabled:true}")
+    public void onPriceTicks(List<ConsumerRecord<String, PriceTickEvent>> records, Consumer<?, ?> consumer) {
+        Map<String, TimedPrice> latestTicks = conflate(records);
+        Map<String, BigDecimal> latestPrices = new LinkedHashMap<>();
+        latestTicks.forEach((symbol, tick) -> {
+            Instant lastTime = lastTickTimes.get(symbol);
+            if (lastTime == null || tick.time().isAfter(lastTime)) {
+                latestPrices.put(symbol, tick.price());
+            }
+        });
+
+        ticksReceived.increment(records.size());
+        recordLag(consumer);
+
+        if (latestPrices.isEmpty()) {
+            return;
+        }
+
+        symbolsFlushed.increment(latestPrices.size());
+        conflationRatio.record((double) records.size() / latestPrices.size());
+
+        if (writeBehindBuffer.offer(latestPrices)) {
+            recordTickTimes(latestPrices, latestTicks);
+            log.debug("Conflated {} ticks into {} symbols, buffered for write-behind",
+                records.size(), latestPrices.size());
+            return;
+        }
+
+        PriceBatchResponse result = revaluationService.revalue(latestPrices);
+        recordTickTimes(latestPrices, latestTicks);
+        log.debug("Conflated {} ticks into {} symbols, revalued {} holdings",
+            records.size(), latestPrices.size(), result.holdingsRevalued());
+    }
+
+    /**
+     * A conflated price and the event time of the tick it came from
+     */
+    record TimedPrice(BigDecimal price, Instant time) {
+    }
+
+    /**
+     * Keep the tick with the latest event time per symbol. A tick without a timestamp
+     * falls back to the record's Kafka timestamp; on equal times the later record wins.
+     */
+    static Map<String, TimedPrice> conflate(List<ConsumerRecord<String, PriceTickEvent>> records) {
+        Map<String, TimedPrice> latestTicks = new LinkedHashMap<>();
+        for (ConsumerRecord<String, PriceTickEvent> record : records) {
+            PriceTickEvent tick = record.value();
+            if (tick == null || tick.symbol() == null || tick.price() == null
+                    || tick.price().compareTo(BigDecimal.ZERO) <= 0) {
+                log.warn("Skipping invalid price tick at {}-{}@{}",
+                    record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            Instant time = tick.timestamp() != null ? tick.timestamp() : Instant.ofEpochMilli(record.timestamp());
+            latestTicks.merge(tick.symbol().toUpperCase(), new TimedPrice(tick.price(), time),
+                (current, next) -> next.time().isBefore(current.time()) ? current : next);
+        }
+        return latestTicks;
+    }
+
+    private void recordTickTimes(Map<String, BigDecimal> handedOn, Map<String, TimedPrice> latestTicks) {
+        for (String symbol : handedOn.keySet()) {
+            lastTickTimes.merge(symbol, latestTicks.get(symbol).time(),
+                (current, next) -> next.isAfter(current) ? next : current);
+        }
+    }
+
+    private void recordLag(Consumer<?, ?> consumer) {
+        long totalLag = 0;
+        for (TopicPartition partition : consumer.assignment()) {
+            OptionalLong lag = consumer.currentLag(partition);
+            if (lag.isPresent()) {
+                totalLag += lag.getAsLong();
+            }
+        }
+        consumerLag.set(totalLag);
+    }
+}
@@ -0,0 +1,11 @@
+package com.finflow.portfolio.infrastructure.kafka.event;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record PriceTickEvent(
+    String symbol,
+    BigDecimal price,
+    Instant timestamp
+) {
+}
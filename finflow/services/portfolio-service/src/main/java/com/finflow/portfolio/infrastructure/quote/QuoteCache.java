@@ -0,0 +1,200 @@
+package com.finflow.portfolio.infrastructure.quote;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.finflow.portfolio.domain.AssetType;
+import com.finflow.portfolio.repository.QuoteRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Process-wide cache of the latest price per symbol.
+ *
+ * Prices from the feed are recorded by revaluation once its transaction
+ * commits. Reads go through the cache and only load the symbol's row in the
+ * quotes table, which revaluation also writes, when the cached quote is
+ * missing or stale, so that is the only case that costs a query. Prices on
+ * individual holdings (trades, manual updates) are never treated as quotes.
+ *
+ * Staleness depends on the asset type. CRYPTO and FOREX trade around the clock
+ * and go stale after their TTL. Exchange-traded types (STOCK, OPTION, FUTURE)
+ * go stale after {@code ttl-ms.stock} during the regular session. A quote
+ * observed before the close stays fresh until the next open. Sessions are
+ * weekdays from 09:30 to 16:00 in {@code market-zone}; exchange holidays are
+ * not modelled, so a quote is reloaded once at the open on a holiday.
+ */
+@Component
+public class QuoteCache {
+
+    private static final LocalTime SESSION_OPEN = LocalTime.of(9, 30);
+    private static final LocalTime SESSION_CLOSE = LocalTime.of(16, 0);
+
+    // Keeps the IN (...) list of the bulk load well below driver parameter limits
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+    private final QuoteRepository quoteRepository;
+    private final Duration cryptoTtl;
+    private final Duration forexTtl;
+    private final Duration stockTtl;
+    private final ZoneId marketZone;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final Map<String, Quote> quotesBySymbol = new ConcurrentHashMap<>();
+
+    public QuoteCache(
+            QuoteRepository quoteRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.quotes.ttl-ms.crypto:10000}") long cryptoTtlMs,
+            @Value("${app.quotes.ttl-ms.forex:30000}") long forexTtlMs,
+            @Value("${app.quotes.ttl-ms.stock:60000}") long stockTtlMs,
+            @Value("${app.quotes.market-zone:America/New_York}") String marketZone) {
+        this.quoteRepository = quoteRepository;
+        this.cryptoTtl = Duration.ofMillis(cryptoTtlMs);
+        this.forexTtl = Duration.ofMillis(forexTtlMs);
+        this.stockTtl = Duration.ofMillis(stockTtlMs);
+        this.marketZone = ZoneId.of(marketZone);
+        this.hits = Counter.builder("portfolio.quotes.requests")
+            .tag("result", "hit")
+            .description("Quote cache lookups")
+            .register(meterRegistry);
+        this.misses = Counter.builder("portfolio.quotes.requests")
+            .tag("result", "miss")
+            .description("Quote cache lookups")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Latest price of a symbol, loaded from the quotes table if the cached
+     * quote is missing or stale for the asset type.
+     *
+     * @return the price, or empty if no price has ever been recorded for the symbol
+     */
+    public Optional<BigDecimal> priceFor(String symbol, AssetType assetType) {
+        Instant now = Instant.now();
+        Quote quote = quotesBySymbol.get(symbol);
+        if (quote != null && isFresh(assetType, quote.observedAt(), now)) {
+            hits.increment();
+            return Optional.of(quote.price());
+        }
+
+        misses.increment();
+        // Revaluation records its price here too, so the stored price is only newer
+        // than the cached one if another instance wrote it
+        Optional<BigDecimal> stored = quoteRepository.findPriceBySymbol(symbol);
+        stored.ifPresent(price -> record(symbol, price, now));
+        return stored;
+    }
+
+    /**
+     * Latest prices of many symbols, loading every missing or stale quote with
+     * one query per chunk of symbols.
+     *
+     * @param assetTypesBySymbol asset type of each symbol, which decides its staleness
+     * @return the prices by symbol; symbols without any recorded price are absent
+     */
+    public Map<String, BigDecimal> pricesFor(Map<String, AssetType> assetTypesBySymbol) {
+        Instant now = Instant.now();
+        Map<String, BigDecimal> prices = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        assetTypesBySymbol.forEach((symbol, assetType) -> {
+            Quote quote = quotesBySymbol.get(symbol);
+            if (quote != null && isFresh(assetType, quote.observedAt(), now)) {
+                prices.put(symbol, quote.price());
+            } else {
+                missing.add(symbol);
+            }
+        });
+        hits.increment(prices.size());
+        misses.increment(missing.size());
+
+        for (int from = 0; from < missing.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<String> chunk = missing.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, missing.size()));
+            for (SymbolPrice stored : quoteRepository.findPricesBySymbolIn(chunk)) {
+                prices.put(stored.symbol(), stored.price());
+                record(stored.symbol(), stored.price(), now);
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Record feed prices once the current transaction commits.
+     */
+    public void putAll(Map<String, BigDecimal> pricesBySymbol) {
+        Instant observedAt = Instant.now();
+        afterCommit(() -> pricesBySymbol.forEach((symbol, price) -> record(symbol, price, observedAt)));
+    }
+
+    boolean isFresh(AssetType assetType, Instant observedAt, Instant now) {
+        return switch (assetType) {
+            case CRYPTO -> now.isBefore(observedAt.plus(cryptoTtl));
+            case FOREX -> now.isBefore(observedAt.plus(forexTtl));
+            case STOCK, OPTION, FUTURE -> now.isBefore(nextOpenAfter(observedAt))
+                && (!isInSession(now) || now.isBefore(observedAt.plus(stockTtl)));
+        };
+    }
+
+    private void record(String symbol, BigDecimal price, Instant observedAt) {
+        // Commits can land out of order; keep the most recently observed price
+        quotesBySymbol.merge(symbol, new Quote(price, observedAt),
+            (current, candidate) -> candidate.observedAt().isBefore(current.observedAt()) ? current : candidate);
+    }
+
+    private boolean isInSession(Instant instant) {
+        ZonedDateTime time = instant.atZone(marketZone);
+        LocalTime localTime = time.toLocalTime();
+        return isTradingDay(time) && !localTime.isBefore(SESSION_OPEN) && localTime.isBefore(SESSION_CLOSE);
+    }
+
+    private Instant nextOpenAfter(Instant instant) {
+        ZonedDateTime time = instant.atZone(marketZone);
+        ZonedDateTime open = time.toLocalDate().atTime(SESSION_OPEN).atZone(marketZone);
+        if (!open.isAfter(time)) {
+            open = open.plusDays(1);
+        }
+        while (!isTradingDay(open)) {
+            open = open.plusDays(1);
+        }
+        return open.toInstant();
+    }
+
+    private static boolean isTradingDay(ZonedDateTime time) {
+        DayOfWeek day = time.getDayOfWeek();
+        return day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Quote(BigDecimal price, Instant observedAt) {
+    }
+}
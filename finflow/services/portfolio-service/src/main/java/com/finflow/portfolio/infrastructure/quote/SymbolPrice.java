@@ -0,0 +1,9 @@
+package com.finflow.portfolio.infrastructure.quote;
+
+import java.math.BigDecimal;
+
+/**
+ * Stored price of a symbol, loaded into the quote cache.
+ */
+public record SymbolPrice(String symbol, BigDecimal price) {
+}
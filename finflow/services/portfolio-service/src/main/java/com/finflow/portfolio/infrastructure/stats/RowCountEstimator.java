@@ -0,0 +1,70 @@
+package com.finflow.portfolio.infrastructure.stats;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Approximate row counts from database statistics, for list endpoints that
+ * want a total without paying for {@code SELECT COUNT(*)}.
+ *
+ * On PostgreSQL the estimate is the planner's row estimate for the filtered
+ * query, which is as fresh as the last ANALYZE. Other databases fall back to
+ * the row estimate kept for the whole table, so the estimate is an upper bound
+ * rather than a count of the matching rows.
+ */
+@Component
+public class RowCountEstimator {
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*(\\d+)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile String databaseProduct;
+
+    public RowCountEstimator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Estimate the rows of a table matching a condition.
+     *
+     * @param table the table name
+     * @param where SQL condition on the table's columns, with ? placeholders
+     * @param args  values of the placeholders
+     * @return the estimate, or empty if the database keeps no statistics for the table
+     */
+    public Optional<Long> estimate(String table, String where, Object... args) {
+        if ("PostgreSQL".equals(databaseProduct())) {
+            String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN (FORMAT JSON) SELECT 1 FROM " + table + " WHERE " + where, String.class, args);
+            Matcher rows = PLAN_ROWS.matcher(plan == null ? "" : plan);
+            return rows.find() ? Optional.of(Long.parseLong(rows.group(1))) : Optional.empty();
+        }
+        try {
+            List<Long> rows = jdbcTemplate.queryForList(
+                "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) = UPPER(?)",
+                Long.class, table);
+            return rows.stream().filter(count -> count != null && count >= 0).findFirst();
+        } catch (DataAccessException e) {
+            // No such statistics column on this database
+            return Optional.empty();
+        }
+    }
+
+    private String databaseProduct() {
+        String product = databaseProduct;
+        if (product == null) {
+            product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            databaseProduct = product;
+        }
+        return product;
+    }
+}
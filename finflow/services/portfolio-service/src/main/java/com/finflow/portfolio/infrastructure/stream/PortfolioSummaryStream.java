@@ -0,0 +1,268 @@
+package com.finflow.portfolio.infrastructure.stream;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.finflow.portfolio.dto.response.PortfolioSummaryResponse;
+import com.finflow.portfolio.repository.PortfolioRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Server-Sent Events stream of portfolio summaries, replacing polling of the
+ * summary endpoint.
+ *
+ * Writes mark their portfolio as changed once they commit. Every push interval
+ * the changed portfolios that have subscribers are loaded in one query and each
+ * subscriber is sent the new summary if it differs from the last one pushed, so
+ * a connection receives at most one event per interval however often the
+ * valuation moves.
+ *
+ * Sends block, so they run on a small pool with a bounded queue. Each
+ * subscriber has at most one send in flight and one summary waiting, which a
+ * newer summary replaces, so a slow client holds back only its own events. A
+ * send running longer than {@code send-timeout-ms} is interrupted and its
+ * subscriber dropped by the push thread, which never waits on a send.
+ */
+@Component
+public class PortfolioSummaryStream {
+
+    private static final Logger log = LoggerFactory.getLogger(PortfolioSummaryStream.class);
+
+    private static final String EVENT_NAME = "portfolio-summary";
+
+    private final PortfolioRepository portfolioRepository;
+    private final long emitterTimeoutMs;
+    private final long sendTimeoutNanos;
+    private final ThreadPoolExecutor sendExecutor;
+
+    private final Map<String, List<Subscriber>> subscribersByPortfolio = new ConcurrentHashMap<>();
+    private final Map<String, PortfolioSummaryResponse> lastPushed = new ConcurrentHashMap<>();
+    private final Set<String> changedPortfolioIds = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public PortfolioSummaryStream(
+            PortfolioRepository portfolioRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.stream.portfolio.timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${app.stream.portfolio.send-timeout-ms:5000}") long sendTimeoutMs,
+            @Value("${app.stream.portfolio.send-threads:4}") int sendThreads,
+            @Value("${app.stream.portfolio.send-queue-capacity:10000}") int sendQueueCapacity) {
+        this.portfolioRepository = portfolioRepository;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.sendExecutor = new ThreadPoolExecutor(sendThreads, sendThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(sendQueueCapacity), new CustomizableThreadFactory("portfolio-sse-"));
+        Gauge.builder("portfolio.stream.subscribers", subscriberCount, AtomicInteger::get)
+            .description("Open portfolio summary SSE connections")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream for a portfolio, starting with its current summary.
+     */
+    public SseEmitter subscribe(PortfolioSummaryResponse current) {
+        String portfolioId = current.id();
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+
+        subscribersByPortfolio.computeIfAbsent(portfolioId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> unsubscribe(portfolioId, subscriber));
+        emitter.onTimeout(() -> unsubscribe(portfolioId, subscriber));
+        emitter.onError(error -> unsubscribe(portfolioId, subscriber));
+
+        dispatch(portfolioId, subscriber, current);
+        return emitter;
+    }
+
+    /**
+     * Mark a portfolio for the next push, once the current transaction commits.
+     */
+    public void markChanged(String portfolioId) {
+        if (portfolioId != null) {
+            afterCommit(() -> {
+                if (subscribersByPortfolio.containsKey(portfolioId)) {
+                    changedPortfolioIds.add(portfolioId);
+                }
+            });
+        }
+    }
+
+    public void markChanged(Collection<String> portfolioIds) {
+        afterCommit(() -> {
+            for (String portfolioId : portfolioIds) {
+                if (subscribersByPortfolio.containsKey(portfolioId)) {
+                    changedPortfolioIds.add(portfolioId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Mark every subscribed portfolio, for writes whose scope is not known.
+     */
+    public void markAllChanged() {
+        afterCommit(() -> changedPortfolioIds.addAll(subscribersByPortfolio.keySet()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.stream.portfolio.push-interval-ms:1000}")
+    public void push() {
+        evictStalledSubscribers();
+        if (changedPortfolioIds.isEmpty()) {
+            return;
+        }
+        List<String> portfolioIds = List.copyOf(changedPortfolioIds);
+        changedPortfolioIds.removeAll(portfolioIds);
+
+        for (PortfolioSummaryResponse summary : portfolioRepository.findSummariesByIdIn(portfolioIds)) {
+            if (summary.equals(lastPushed.put(summary.id(), summary))) {
+                continue;
+            }
+            for (Subscriber subscriber : subscribersByPortfolio.getOrDefault(summary.id(), List.of())) {
+                dispatch(summary.id(), subscriber, summary);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sendExecutor.shutdownNow();
+        subscribersByPortfolio.values().forEach(subscribers -> subscribers.forEach(s -> s.emitter.complete()));
+    }
+
+    /**
+     * Queue a summary for a subscriber, replacing any it has not been sent yet.
+     */
+    private void dispatch(String portfolioId, Subscriber subscriber, PortfolioSummaryResponse summary) {
+        subscriber.pending.set(summary);
+        if (!subscriber.sending.compareAndSet(false, true)) {
+            // The send in flight picks the summary up when it finishes
+            return;
+        }
+        try {
+            subscriber.inFlight = sendExecutor.submit(() -> drain(portfolioId, subscriber));
+        } catch (RejectedExecutionException e) {
+            // Pool saturated: leave the summary pending and retry next interval
+            subscriber.sending.set(false);
+            lastPushed.remove(portfolioId);
+            changedPortfolioIds.add(portfolioId);
+        }
+    }
+
+    private void drain(String portfolioId, Subscriber subscriber) {
+        while (true) {
+            PortfolioSummaryResponse summary = subscriber.pending.getAndSet(null);
+            if (summary == null) {
+                subscriber.sending.set(false);
+                // A summary queued after the check above but before the flag cleared would otherwise wait
+                if (subscriber.pending.get() == null || !subscriber.sending.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            subscriber.sendStartedAt = System.nanoTime();
+            try {
+                subscriber.emitter.send(SseEmitter.event()
+                    .name(EVENT_NAME)
+                    .data(summary, MediaType.APPLICATION_JSON));
+            } catch (IOException | RuntimeException e) {
+                // Client went away or the send was interrupted on timeout; the callbacks may not fire for a broken pipe
+                unsubscribe(portfolioId, subscriber);
+                subscriber.emitter.completeWithError(e);
+                return;
+            } finally {
+                subscriber.sendStartedAt = 0;
+            }
+        }
+    }
+
+    /**
+     * Drop subscribers whose send has been blocked past the timeout. Runs on the
+     * push thread and only interrupts the stuck send, which then completes the
+     * emitter from its own thread; completing it here would wait on the send.
+     */
+    private void evictStalledSubscribers() {
+        long now = System.nanoTime();
+        subscribersByPortfolio.forEach((portfolioId, subscribers) -> {
+            for (Subscriber subscriber : subscribers) {
+                long startedAt = subscriber.sendStartedAt;
+                if (startedAt != 0 && now - startedAt > sendTimeoutNanos) {
+                    log.info("Disconnecting slow portfolio stream subscriber for {}", portfolioId);
+                    unsubscribe(portfolioId, subscriber);
+                    Future<?> inFlight = subscriber.inFlight;
+                    if (inFlight != null) {
+                        inFlight.cancel(true);
+                    }
+                }
+            }
+        });
+    }
+
+    private void unsubscribe(String portfolioId, Subscriber subscriber) {
+        subscribersByPortfolio.computeIfPresent(portfolioId, (id, subscribers) -> {
+            if (subscribers.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        if (!subscribersByPortfolio.containsKey(portfolioId)) {
+            lastPushed.remove(portfolioId);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // Latest summary not yet sent; a newer one replaces it
+        private final AtomicReference<PortfolioSummaryResponse> pending = new AtomicReference<>();
+        private volatile Future<?> inFlight;
+        // System.nanoTime() when the current send started, or 0 when idle
+        private volatile long sendStartedAt;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.finflow.portfolio.infrastructure.valuation;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.finflow.portfolio.application.PortfolioService;
+import com.finflow.portfolio.application.RevaluationService;
+import com.finflow.portfolio.infrastructure.index.SymbolHoldingIndex;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind buffer for streamed prices. Instead of revaluing per poll, the
+ * latest price of each symbol is kept in a dirty set and written out every
+ * {@code flush-interval-ms}, or as soon as the dirty symbols cover
+ * {@code max-dirty-rows} holdings, so database writes stay flat as tick volume
+ * grows.
+ *
+ * Prices buffered at a crash are lost; the database holds the last flushed
+ * prices with consistent aggregates and is reconciled on startup, and the next
+ * tick for each symbol brings it current again.
+ */
+@Component
+public class ValuationWriteBehindBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ValuationWriteBehindBuffer.class);
+
+    private final RevaluationService revaluationService;
+    private final PortfolioService portfolioService;
+    private final SymbolHoldingIndex symbolIndex;
+    private final boolean enabled;
+    private final int maxDirtyRows;
+    private final Timer flushTimer;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Map<String, BigDecimal> dirtyPrices = new HashMap<>();
+    private int dirtyRows;
+
+    public ValuationWriteBehindBuffer(
+            RevaluationService revaluationService,
+            PortfolioService portfolioService,
+            SymbolHoldingIndex symbolIndex,
+            MeterRegistry meterRegistry,
+            @Value("${app.valuation.write-behind.enabled:false}") boolean enabled,
+            @Value("${app.valuation.write-behind.max-dirty-rows:5000}") int maxDirtyRows) {
+        this.revaluationService = revaluationService;
+        this.portfolioService = portfolioService;
+        this.symbolIndex = symbolIndex;
+        this.enabled = enabled;
+        this.maxDirtyRows = maxDirtyRows;
+        this.flushTimer = Timer.builder("portfolio.valuation.write-behind.flush")
+            .description("Time to write buffered prices to the database")
+            .register(meterRegistry);
+        Gauge.builder("portfolio.valuation.write-behind.dirty.rows", this, ValuationWriteBehindBuffer::getDirtyRows)
+            .description("Holdings covered by prices waiting to be flushed")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Buffer prices for the next flush.
+     *
+     * @return false if write-behind is disabled or the symbol index is not built
+     *         yet, in which case the caller must revalue synchronously
+     */
+    public boolean offer(Map<String, BigDecimal> pricesBySymbol) {
+        if (!enabled || !symbolIndex.isReady()) {
+            return false;
+        }
+
+        boolean full;
+        synchronized (this) {
+            for (Map.Entry<String, BigDecimal> entry : pricesBySymbol.entrySet()) {
+                // Rows are counted once per symbol; later prices for it just replace the pending one
+                if (dirtyPrices.put(entry.getKey(), entry.getValue()) == null) {
+                    dirtyRows += symbolIndex.positionsFor(entry.getKey()).size();
+                }
+            }
+            full = dirtyRows >= maxDirtyRows;
+        }
+        if (full) {
+            flush();
+        }
+        return true;
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.valuation.write-behind.flush-interval-ms:500}",
+        initialDelayString = "${app.valuation.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        // A flush already running picks up everything buffered before it drained
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            Map<String, BigDecimal> prices = drain();
+            if (prices.isEmpty()) {
+                return;
+            }
+            int written;
+            try {
+                written = flushTimer.record(() -> revaluationService.applyBufferedPrices(prices));
+            } catch (RuntimeException e) {
+                requeue(prices);
+                log.warn("Flush of {} buffered prices failed, kept them for the next flush", prices.size(), e);
+                return;
+            }
+            log.debug("Flushed {} buffered prices covering {} holdings", prices.size(), written);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Check the aggregates against the holdings before streaming resumes. Every
+     * flush is a single transaction, so this normally finds nothing after a crash.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (enabled) {
+            portfolioService.verifyAggregates();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (enabled) {
+            flushLock.lock();
+            try {
+                Map<String, BigDecimal> prices = drain();
+                if (!prices.isEmpty()) {
+                    revaluationService.applyBufferedPrices(prices);
+                }
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    private synchronized Map<String, BigDecimal> drain() {
+        Map<String, BigDecimal> prices = dirtyPrices;
+        dirtyPrices = new HashMap<>();
+        dirtyRows = 0;
+        return prices;
+    }
+
+    // Put back prices whose flush failed, unless a newer price for the symbol arrived meanwhile
+    private synchronized void requeue(Map<String, BigDecimal> prices) {
+        for (Map.Entry<String, BigDecimal> entry : prices.entrySet()) {
+            if (dirtyPrices.putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+                dirtyRows += symbolIndex.positionsFor(entry.getKey()).size();
+            }
+        }
+    }
+
+    private synchronized int getDirtyRows() {
+        return dirtyRows;
+    }
+}
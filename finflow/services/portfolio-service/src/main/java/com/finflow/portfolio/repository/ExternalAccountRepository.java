@@ -3,18 +3,25 @@ package com.finflow.portfolio.repository;
 import com.finflow.portfolio.domain.ConnectionStatus;
 import com.finflow.portfolio.domain.ExternalAccount;
 import com.finflow.portfolio.domain.ExternalPlatform;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExternalAccountRepository extends JpaRepository<ExternalAccount, String> {
@@ -161,13 +168,27 @@ public interface ExternalAccountRepository extends JpaRepository<ExternalAccount
 	List<ExternalAccount> findByUserIdAndSyncEnabled(String userId, boolean syncEnabled);
 
 	/**
-	 * Find accounts ready to sync (connected and sync enabled)
+	 * Find accounts ready to sync (connected and sync enabled). Holds every such
+	 * account in memory; jobs over every account should use
+	 * {@link #streamAccountsReadyToSync()}.
 	 *
 	 * @return list of accounts ready to sync
 	 */
 	@Query("SELECT ea FROM ExternalAccount ea WHERE ea.status = 'CONNECTED' AND ea.syncEnabled = true")
 	List<ExternalAccount> findAccountsReadyToSync();
 
+	/**
+	 * Stream accounts ready to sync through a cursor, for jobs over every account
+	 * (see {@link StreamingQueries})
+	 *
+	 * @return stream of accounts ready to sync, to be closed by the caller
+	 */
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("SELECT ea FROM ExternalAccount ea WHERE ea.status = 'CONNECTED' AND ea.syncEnabled = true")
+	Stream<ExternalAccount> streamAccountsReadyToSync();
+
 	/**
 	 * Find accounts that haven't synced recently
 	 *
@@ -330,37 +351,53 @@ public interface ExternalAccountRepository extends JpaRepository<ExternalAccount
 	 */
 	Page<ExternalAccount> findByStatus(ConnectionStatus status, Pageable pageable);
 
+	/**
+	 * Find accounts by status by keyset, ordered by creation time then ID
+	 *
+	 * @param status   the connection status
+	 * @param position the keyset position to scroll from
+	 * @param limit    maximum number of accounts
+	 * @return window of accounts
+	 */
+	Window<ExternalAccount> findByStatusOrderByCreatedAtAscIdAsc(ConnectionStatus status, ScrollPosition position, Limit limit);
+
 	// ============================================================
 	// Delete Operations
 	// ============================================================
 
 	/**
-	 * Delete all accounts for a user
+	 * Delete all accounts for a user in one statement, without loading them
 	 *
 	 * @param userId the user ID
+	 * @return number of accounts deleted
 	 */
 	@Modifying
 	@Transactional
-	void deleteByUserId(String userId);
+	@Query("DELETE FROM ExternalAccount ea WHERE ea.userId = :userId")
+	int deleteByUserId(@Param("userId") String userId);
 
 	/**
-	 * Delete account by user and platform
+	 * Delete account by user and platform in one statement, without loading it
 	 *
 	 * @param userId   the user ID
 	 * @param platform the platform
+	 * @return number of accounts deleted
 	 */
 	@Modifying
 	@Transactional
-	void deleteByUserIdAndPlatform(String userId, ExternalPlatform platform);
+	@Query("DELETE FROM ExternalAccount ea WHERE ea.userId = :userId AND ea.platform = :platform")
+	int deleteByUserIdAndPlatform(@Param("userId") String userId, @Param("platform") ExternalPlatform platform);
 
 	/**
-	 * Delete accounts with specific status
+	 * Delete accounts with specific status in one statement, without loading them
 	 *
 	 * @param status the connection status
+	 * @return number of accounts deleted
 	 */
 	@Modifying
 	@Transactional
-	void deleteByStatus(ConnectionStatus status);
+	@Query("DELETE FROM ExternalAccount ea WHERE ea.status = :status")
+	int deleteByStatus(@Param("status") ConnectionStatus status);
 
 	// ============================================================
 	// Statistical Queries
@@ -2,20 +2,34 @@ package com.finflow.portfolio.repository;
 
 import com.finflow.portfolio.domain.AssetType;
 import com.finflow.portfolio.domain.Holding;
+import com.finflow.portfolio.domain.HoldingValuation;
 import com.finflow.portfolio.domain.Portfolio;
+import com.finflow.portfolio.dto.response.HoldingResponse;
+import com.finflow.portfolio.infrastructure.index.IndexedPosition;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface HoldingRepository extends JpaRepository<Holding, String> {
@@ -111,6 +125,14 @@ public interface HoldingRepository extends JpaRepository<Holding, String> {
    */
   boolean existsByPortfolio_IdAndSymbol(String portfolioId, String symbol);
 
+  /**
+   * Count the holdings of a portfolio without loading them
+   *
+   * @param portfolioId the portfolio ID
+   * @return number of holdings
+   */
+  long countByPortfolio_Id(String portfolioId);
+
   // ============================================================
   // Asset Type Queries
   // ============================================================
@@ -299,24 +321,171 @@ public interface HoldingRepository extends JpaRepository<Holding, String> {
   // ============================================================
   // Custom Queries with Eager Loading
   // ============================================================
+  // HoldingResponse only needs the portfolio ID, which the lazy reference
+  // already holds; use these only when the portfolio itself is read.
 
   /**
-   * Find holdings by user ID with portfolio eagerly loaded (avoids N+1)
+   * Find holdings by user ID with portfolio loaded in the same query (avoids N+1)
    *
    * @param userId the user ID
    * @return list of holdings with portfolio loaded
    */
-  @Query("SELECT h FROM Holding h JOIN FETCH h.portfolio WHERE h.userId = :userId")
+  @EntityGraph(Holding.WITH_PORTFOLIO)
+  @Query("SELECT h FROM Holding h WHERE h.userId = :userId")
   List<Holding> findByUserIdWithPortfolio(@Param("userId") String userId);
 
   /**
-   * Find all holdings with portfolio eagerly loaded
+   * Find all holdings with portfolio loaded in the same query. Holds every
+   * holding in memory; jobs over the whole table should use
+   * {@link #streamAllWithPortfolio()}.
    *
    * @return list of all holdings with portfolio
    */
-  @Query("SELECT h FROM Holding h JOIN FETCH h.portfolio")
+  @EntityGraph(Holding.WITH_PORTFOLIO)
+  @Query("SELECT h FROM Holding h")
   List<Holding> findAllWithPortfolio();
 
+  /**
+   * Stream all holdings with their portfolio through a cursor, ordered so each
+   * portfolio's holdings arrive together (see {@link StreamingQueries}).
+   * Replaces findAllWithPortfolio and PortfolioRepository.findAllWithHoldings
+   * for jobs over the whole table.
+   *
+   * @return stream of holdings grouped by portfolio, to be closed by the caller
+   */
+  @EntityGraph(Holding.WITH_PORTFOLIO)
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE") })
+  @Query("SELECT h FROM Holding h ORDER BY h.portfolio.id, h.id")
+  Stream<Holding> streamAllWithPortfolio();
+
+  // ============================================================
+  // Projections
+  // ============================================================
+
+  /**
+   * Load the positions of every holding without hydrating entities
+   * (used to build the in-memory symbol index). The index is built from
+   * {@link #streamAllIndexedPositions()}, which does not hold the whole list.
+   *
+   * @return list of indexed positions
+   */
+  @Query("SELECT new com.finflow.portfolio.infrastructure.index.IndexedPosition(" +
+         "h.id, h.portfolio.id, h.symbol, h.assetType, h.quantity, h.averageCost, h.marketValue) FROM Holding h")
+  List<IndexedPosition> findAllIndexedPositions();
+
+  /**
+   * Stream the positions of every holding through a cursor without hydrating
+   * entities (see {@link StreamingQueries})
+   *
+   * @return stream of indexed positions, to be closed by the caller
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE))
+  @Query("SELECT new com.finflow.portfolio.infrastructure.index.IndexedPosition(" +
+         "h.id, h.portfolio.id, h.symbol, h.assetType, h.quantity, h.averageCost, h.marketValue) FROM Holding h")
+  Stream<IndexedPosition> streamAllIndexedPositions();
+
+  /**
+   * Load the positions of a portfolio without hydrating entities
+   *
+   * @param portfolioId the portfolio ID
+   * @return list of indexed positions
+   */
+  @Query("SELECT new com.finflow.portfolio.infrastructure.index.IndexedPosition(" +
+         "h.id, h.portfolio.id, h.symbol, h.assetType, h.quantity, h.averageCost, h.marketValue) " +
+         "FROM Holding h WHERE h.portfolio.id = :portfolioId")
+  List<IndexedPosition> findIndexedPositionsByPortfolioId(@Param("portfolioId") String portfolioId);
+
+  /**
+   * Load the positions of a symbol without hydrating entities
+   *
+   * @param symbol the asset symbol
+   * @return list of indexed positions
+   */
+  @Query("SELECT new com.finflow.portfolio.infrastructure.index.IndexedPosition(" +
+         "h.id, h.portfolio.id, h.symbol, h.assetType, h.quantity, h.averageCost, h.marketValue) " +
+         "FROM Holding h WHERE h.symbol = :symbol")
+  List<IndexedPosition> findIndexedPositionsBySymbol(@Param("symbol") String symbol);
+
+  /**
+   * Sum the valuations of a portfolio's holdings without hydrating entities.
+   * Mirrors {@link Holding#valuation()}: missing values count as zero and the
+   * cost basis is rounded per holding.
+   *
+   * @param portfolioId the portfolio ID
+   * @return combined valuation, zero for a portfolio without holdings
+   */
+  @Query("SELECT new com.finflow.portfolio.domain.HoldingValuation(" +
+         "COALESCE(SUM(h.marketValue), 0), COALESCE(SUM(h.unrealizedPnL), 0), " +
+         "COALESCE(SUM(ROUND(h.quantity * h.averageCost, 4)), 0)) " +
+         "FROM Holding h WHERE h.portfolio.id = :portfolioId")
+  HoldingValuation sumValuationByPortfolioId(@Param("portfolioId") String portfolioId);
+
+  // ============================================================
+  // Response Projections
+  // ============================================================
+
+  /**
+   * Selects holdings straight into HoldingResponse, so read endpoints skip
+   * entity hydration, dirty-check snapshots and the portfolio proxy
+   */
+  String HOLDING_RESPONSE_SELECT = "SELECT new com.finflow.portfolio.dto.response.HoldingResponse(" +
+         "h.id, h.portfolio.id, h.userId, h.symbol, h.quantity, h.averageCost, h.currentPrice, " +
+         "h.marketValue, h.unrealizedPnL, h.unrealizedPnLPercent, h.assetType, h.exchange, " +
+         "h.createdAt, h.updatedAt) FROM Holding h ";
+
+  /**
+   * Find a holding response by ID
+   *
+   * @param id the holding ID
+   * @return Optional containing the holding response if found
+   */
+  @Query(HOLDING_RESPONSE_SELECT + "WHERE h.id = :id")
+  Optional<HoldingResponse> findResponseById(@Param("id") String id);
+
+  /**
+   * Find the holding responses of a user
+   *
+   * @param userId the user ID
+   * @return list of holding responses
+   */
+  @Query(HOLDING_RESPONSE_SELECT + "WHERE h.userId = :userId")
+  List<HoldingResponse> findResponsesByUserId(@Param("userId") String userId);
+
+  /**
+   * Find the holding responses of a user by asset type
+   *
+   * @param userId    the user ID
+   * @param assetType the asset type
+   * @return list of holding responses
+   */
+  @Query(HOLDING_RESPONSE_SELECT + "WHERE h.userId = :userId AND h.assetType = :assetType")
+  List<HoldingResponse> findResponsesByUserIdAndAssetType(
+      @Param("userId") String userId, @Param("assetType") AssetType assetType);
+
+  /**
+   * Find the holding responses of a user a page at a time
+   *
+   * @param userId   the user ID
+   * @param pageable pagination parameters
+   * @return page of holding responses
+   */
+  @Query(value = HOLDING_RESPONSE_SELECT + "WHERE h.userId = :userId",
+         countQuery = "SELECT COUNT(h) FROM Holding h WHERE h.userId = :userId")
+  Page<HoldingResponse> findResponsePageByUserId(@Param("userId") String userId, Pageable pageable);
+
+  /**
+   * Find the holding responses of a user a page at a time without counting them
+   *
+   * @param userId   the user ID
+   * @param pageable pagination parameters
+   * @return slice of holding responses, which only knows whether a next page exists
+   */
+  @Query(HOLDING_RESPONSE_SELECT + "WHERE h.userId = :userId")
+  Slice<HoldingResponse> findResponseSliceByUserId(@Param("userId") String userId, Pageable pageable);
+
   // ============================================================
   // Pagination Support
   // ============================================================
@@ -339,57 +508,91 @@ public interface HoldingRepository extends JpaRepository<Holding, String> {
    */
   Page<Holding> findByPortfolio_Id(String portfolioId, Pageable pageable);
 
+  /**
+   * Find user's holdings by keyset, ordered by symbol then ID
+   *
+   * @param userId   the user ID
+   * @param position the keyset position to scroll from
+   * @param limit    maximum number of holdings
+   * @return window of holdings
+   */
+  Window<Holding> findByUserIdOrderBySymbolAscIdAsc(String userId, ScrollPosition position, Limit limit);
+
   // ============================================================
-  // Delete Operations
+  // Bulk Revaluation
   // ============================================================
 
   /**
-   * Delete all holdings in a portfolio
+   * Reprice every holding of a symbol in a single UPDATE. Mirrors the scale-4
+   * HALF_UP arithmetic of {@link Holding#updateMarketValue(BigDecimal)}.
    *
-   * @param portfolioId the portfolio ID
+   * @param symbol the asset symbol
+   * @param price  the new market price
+   * @return number of holdings updated
    */
   @Modifying
-  @Transactional
-  void deleteByPortfolio_Id(String portfolioId);
+  @Query("UPDATE Holding h SET h.currentPrice = :price, " +
+         "h.marketValue = ROUND(h.quantity * :price, 4), " +
+         "h.unrealizedPnL = ROUND(h.quantity * :price, 4) - ROUND(h.quantity * h.averageCost, 4), " +
+         "h.unrealizedPnLPercent = CASE WHEN ROUND(h.quantity * h.averageCost, 4) = 0 THEN 0 " +
+         "ELSE ROUND((ROUND(h.quantity * :price, 4) - ROUND(h.quantity * h.averageCost, 4)) " +
+         "/ ROUND(h.quantity * h.averageCost, 4), 4) * 100 END, " +
+         "h.updatedAt = LOCAL DATETIME " +
+         "WHERE h.symbol = :symbol")
+  int revalueBySymbol(@Param("symbol") String symbol, @Param("price") BigDecimal price);
+
+  /**
+   * Latest recorded quote of the holding's symbol, for native revaluation
+   */
+  String QUOTE_OF_HOLDING = "(SELECT q.price FROM quotes q WHERE q.symbol = h.symbol)";
 
   /**
-   * Delete specific holding by portfolio and symbol
+   * Reprice the holdings of a portfolio at the latest quote of their symbol in
+   * a single UPDATE, with the arithmetic of {@link #revalueBySymbol}. Holdings
+   * without a quote, or already at it, are left alone.
    *
    * @param portfolioId the portfolio ID
-   * @param symbol      the asset symbol
+   * @return number of holdings updated
    */
   @Modifying
-  @Transactional
-  void deleteByPortfolio_IdAndSymbol(String portfolioId, String symbol);
+  @Query(value = "UPDATE holdings h SET current_price = " + QUOTE_OF_HOLDING + ", " +
+         "market_value = ROUND(h.quantity * " + QUOTE_OF_HOLDING + ", 4), " +
+         "unrealized_pnl = ROUND(h.quantity * " + QUOTE_OF_HOLDING + ", 4) - ROUND(h.quantity * h.average_cost, 4), " +
+         "unrealized_pnl_percent = CASE WHEN ROUND(h.quantity * h.average_cost, 4) = 0 THEN 0 " +
+         "ELSE ROUND((ROUND(h.quantity * " + QUOTE_OF_HOLDING + ", 4) - ROUND(h.quantity * h.average_cost, 4)) " +
+         "/ ROUND(h.quantity * h.average_cost, 4), 4) * 100 END, " +
+         "updated_at = LOCALTIMESTAMP " +
+         "WHERE h.portfolio_id = :portfolioId AND EXISTS (SELECT 1 FROM quotes q WHERE q.symbol = h.symbol " +
+         "AND (h.current_price IS NULL OR q.price <> h.current_price))",
+         nativeQuery = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "holdings"))
+  int revalueByPortfolioAtQuotes(@Param("portfolioId") UUID portfolioId);
 
   // ============================================================
-  // Statistical Queries
+  // Delete Operations
   // ============================================================
 
   /**
-   * Get total market value of all holdings for a user
-   *
-   * @param userId the user ID
-   * @return total market value
-   */
-  @Query("SELECT SUM(h.marketValue) FROM Holding h WHERE h.userId = :userId")
-  BigDecimal getTotalMarketValueByUserId(@Param("userId") String userId);
-
-  /**
-   * Get total unrealized P&L for a user
+   * Delete all holdings in a portfolio in one statement, without loading them.
+   * Holdings already loaded into the persistence context are left stale.
    *
-   * @param userId the user ID
-   * @return total unrealized P&L
+   * @param portfolioId the portfolio ID
+   * @return number of holdings deleted
    */
-  @Query("SELECT SUM(h.unrealizedPnL) FROM Holding h WHERE h.userId = :userId")
-  BigDecimal getTotalUnrealizedPnLByUserId(@Param("userId") String userId);
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM Holding h WHERE h.portfolio.id = :portfolioId")
+  int deleteByPortfolio_Id(@Param("portfolioId") String portfolioId);
 
   /**
-   * Count holdings by asset type for a user
+   * Delete specific holding by portfolio and symbol in one statement, without loading it
    *
-   * @param userId    the user ID
-   * @param assetType the asset type
-   * @return count of holdings
+   * @param portfolioId the portfolio ID
+   * @param symbol      the asset symbol
+   * @return number of holdings deleted
    */
-  Long countByUserIdAndAssetType(String userId, AssetType assetType);
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM Holding h WHERE h.portfolio.id = :portfolioId AND h.symbol = :symbol")
+  int deleteByPortfolio_IdAndSymbol(@Param("portfolioId") String portfolioId, @Param("symbol") String symbol);
 }
@@ -0,0 +1,207 @@
+package com.finflow.portfolio.repository;
+
+import com.finflow.portfolio.domain.AssetType;
+import com.finflow.portfolio.domain.HoldingTotals;
+import com.finflow.portfolio.domain.HoldingValuation;
+import com.finflow.portfolio.domain.UuidStringJavaType;
+import com.finflow.portfolio.dto.response.HoldingTotalsResponse;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface HoldingTotalsRepository extends JpaRepository<HoldingTotals, HoldingTotals.Key> {
+
+  // ============================================================
+  // Lookups
+  // ============================================================
+
+  /**
+   * Find a user's totals for every asset type they hold
+   *
+   * @param userId the user ID
+   * @return totals per asset type, without the asset types the user holds none of
+   */
+  @Query("SELECT new com.finflow.portfolio.dto.response.HoldingTotalsResponse(" +
+         "t.assetType, t.holdingsCount, t.marketValue, t.unrealizedPnL, t.costBasis) " +
+         "FROM HoldingTotals t WHERE t.userId = :userId AND t.holdingsCount > 0 ORDER BY t.assetType")
+  List<HoldingTotalsResponse> findResponsesByUserId(@Param("userId") String userId);
+
+  /**
+   * Count a user's holdings of one asset type
+   *
+   * @param userId    the user ID
+   * @param assetType the asset type
+   * @return count of holdings, empty if the user has no portfolio
+   */
+  @Query("SELECT t.holdingsCount FROM HoldingTotals t WHERE t.userId = :userId AND t.assetType = :assetType")
+  Optional<Long> findHoldingsCount(@Param("userId") String userId, @Param("assetType") AssetType assetType);
+
+  // ============================================================
+  // Delta Maintenance
+  // ============================================================
+
+  /**
+   * Apply the change made by a holding mutation to its owner's totals
+   *
+   * @param userId     the holding's user ID
+   * @param assetType  the holding's asset type
+   * @param countDelta holdings added (1), removed (-1) or neither (0)
+   * @param before     valuation of the holding before the change
+   * @param after      valuation of the holding after the change
+   */
+  default void applyHoldingDelta(String userId, AssetType assetType, int countDelta,
+      HoldingValuation before, HoldingValuation after) {
+    BigDecimal marketValueDelta = after.marketValue().subtract(before.marketValue());
+    BigDecimal pnlDelta = after.unrealizedPnL().subtract(before.unrealizedPnL());
+    BigDecimal costBasisDelta = after.costBasis().subtract(before.costBasis());
+    if (countDelta == 0 && marketValueDelta.signum() == 0 && pnlDelta.signum() == 0 && costBasisDelta.signum() == 0) {
+      return;
+    }
+    applyDelta(userId, assetType, countDelta, marketValueDelta, pnlDelta, costBasisDelta);
+  }
+
+  @Modifying
+  @Query("UPDATE HoldingTotals t SET t.holdingsCount = t.holdingsCount + :countDelta, " +
+         "t.marketValue = t.marketValue + :marketValueDelta, " +
+         "t.unrealizedPnL = t.unrealizedPnL + :pnlDelta, " +
+         "t.costBasis = t.costBasis + :costBasisDelta " +
+         "WHERE t.userId = :userId AND t.assetType = :assetType")
+  int applyDelta(
+      @Param("userId") String userId,
+      @Param("assetType") AssetType assetType,
+      @Param("countDelta") long countDelta,
+      @Param("marketValueDelta") BigDecimal marketValueDelta,
+      @Param("pnlDelta") BigDecimal pnlDelta,
+      @Param("costBasisDelta") BigDecimal costBasisDelta);
+
+  /**
+   * Apply a price move of one portfolio's holdings of an asset type. Cost basis
+   * is unaffected, so market value and unrealized P&L move by the same amount.
+   *
+   * @param portfolioId the portfolio ID (one per user)
+   * @param assetType   the repriced holdings' asset type
+   * @param delta       the change in market value
+   * @return number of rows updated
+   */
+  @Modifying
+  @Query("UPDATE HoldingTotals t SET t.marketValue = t.marketValue + :delta, " +
+         "t.unrealizedPnL = t.unrealizedPnL + :delta " +
+         "WHERE t.assetType = :assetType " +
+         "AND t.userId = (SELECT p.user.id FROM Portfolio p WHERE p.id = :portfolioId)")
+  int applyValueDelta(
+      @Param("portfolioId") String portfolioId,
+      @Param("assetType") AssetType assetType,
+      @Param("delta") BigDecimal delta);
+
+  /**
+   * Create a user's totals, with their portfolio: one empty row per asset type
+   *
+   * @param userId the user ID
+   */
+  default void insertEmpty(String userId) {
+    UUID id = UuidStringJavaType.toUuid(userId);
+    for (AssetType assetType : AssetType.values()) {
+      insertEmpty(id, assetType.name());
+    }
+  }
+
+  @Modifying
+  @Query(value = "INSERT INTO holding_totals " +
+         "(user_id, asset_type, holdings_count, market_value, unrealized_pnl, cost_basis) " +
+         "VALUES (:userId, :assetType, 0, 0, 0, 0)",
+         nativeQuery = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "holding_totals"))
+  void insertEmpty(@Param("userId") UUID userId, @Param("assetType") String assetType);
+
+  /**
+   * Remove a user's totals, with their portfolio
+   *
+   * @param userId the user ID
+   */
+  @Modifying
+  @Query("DELETE FROM HoldingTotals t WHERE t.userId = :userId")
+  void deleteByUserId(@Param("userId") String userId);
+
+  // ============================================================
+  // Recompute
+  // ============================================================
+
+  /**
+   * Recomputes totals from the holdings they summarize
+   */
+  String REFRESH_SET = "UPDATE holding_totals t SET " +
+         "holdings_count = (SELECT COUNT(*) FROM holdings h " +
+         "WHERE h.user_id = t.user_id AND h.asset_type = t.asset_type), " +
+         "market_value = COALESCE((SELECT SUM(h.market_value) FROM holdings h " +
+         "WHERE h.user_id = t.user_id AND h.asset_type = t.asset_type), 0), " +
+         "unrealized_pnl = COALESCE((SELECT SUM(h.unrealized_pnl) FROM holdings h " +
+         "WHERE h.user_id = t.user_id AND h.asset_type = t.asset_type), 0), " +
+         "cost_basis = COALESCE((SELECT SUM(ROUND(h.quantity * h.average_cost, 4)) FROM holdings h " +
+         "WHERE h.user_id = t.user_id AND h.asset_type = t.asset_type), 0) ";
+
+  /**
+   * Recompute the totals covering the given symbols, for repricing the
+   * symbol index could not account for
+   *
+   * @param symbols the repriced symbols
+   * @return number of rows updated
+   */
+  @Modifying
+  @Query(value = REFRESH_SET + "WHERE EXISTS (SELECT 1 FROM holdings h " +
+         "WHERE h.user_id = t.user_id AND h.asset_type = t.asset_type AND h.symbol IN (:symbols))",
+         nativeQuery = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "holding_totals"))
+  int refreshForSymbols(@Param("symbols") Collection<String> symbols);
+
+  /**
+   * Recompute every total of the given users
+   *
+   * @param userIds the user IDs
+   * @return number of rows updated
+   */
+  @Modifying
+  @Query(value = REFRESH_SET + "WHERE t.user_id IN (:userIds)", nativeQuery = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "holding_totals"))
+  int refreshForUsers(@Param("userIds") Collection<UUID> userIds);
+
+  /**
+   * Find users whose totals disagree with their holdings
+   *
+   * @return list of user IDs
+   */
+  @Query(value = "SELECT DISTINCT t.user_id FROM holding_totals t " +
+         "LEFT JOIN (SELECT h.user_id, h.asset_type, COUNT(*) AS holdings_count, " +
+         "SUM(h.market_value) AS market_value, SUM(h.unrealized_pnl) AS pnl, " +
+         "SUM(ROUND(h.quantity * h.average_cost, 4)) AS cost_basis " +
+         "FROM holdings h GROUP BY h.user_id, h.asset_type) a " +
+         "ON a.user_id = t.user_id AND a.asset_type = t.asset_type " +
+         "WHERE t.holdings_count <> COALESCE(a.holdings_count, 0) " +
+         "OR t.market_value <> COALESCE(a.market_value, 0) " +
+         "OR t.unrealized_pnl <> COALESCE(a.pnl, 0) " +
+         "OR t.cost_basis <> COALESCE(a.cost_basis, 0)",
+         nativeQuery = true)
+  List<UUID> findUserIdsWithStaleTotals();
+
+  /**
+   * Find users with a portfolio but without a totals row for every asset type
+   *
+   * @param assetTypes number of asset types
+   * @return list of user IDs
+   */
+  @Query(value = "SELECT p.user_id FROM portfolios p " +
+         "WHERE (SELECT COUNT(*) FROM holding_totals t WHERE t.user_id = p.user_id) < :assetTypes",
+         nativeQuery = true)
+  List<UUID> findUserIdsWithMissingTotals(@Param("assetTypes") int assetTypes);
+}
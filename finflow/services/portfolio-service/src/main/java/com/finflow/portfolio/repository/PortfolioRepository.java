@@ -2,18 +2,25 @@ package com.finflow.portfolio.repository;
 
 import com.finflow.portfolio.domain.Portfolio;
 import com.finflow.portfolio.domain.User;
+import com.finflow.portfolio.dto.response.PortfolioSummaryResponse;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface PortfolioRepository extends JpaRepository<Portfolio, String> {
@@ -31,12 +38,42 @@ public interface PortfolioRepository extends JpaRepository<Portfolio, String> {
 	Optional<Portfolio> findByUser(User user);
 
 	/**
-	 * Find portfolio by user ID (navigates User relationship)
+	 * Second-level cache region of the user to portfolio lookup
+	 */
+	String BY_USER_CACHE_REGION = "portfolio.by-user";
+
+	/**
+	 * Find portfolio by user ID. The ID lookup is served from the query cache
+	 * and the portfolio from the entity cache, so a warm lookup runs no SQL.
 	 * 
 	 * @param userId the user ID
 	 * @return Optional containing the portfolio if found
 	 */
-	Optional<Portfolio> findByUser_Id(String userId);
+	default Optional<Portfolio> findByUser_Id(String userId) {
+		return findIdByUserId(userId).flatMap(this::findById);
+	}
+
+	/**
+	 * Find the ID of a user's portfolio (cached query)
+	 * 
+	 * @param userId the user ID
+	 * @return Optional containing the portfolio ID if found
+	 */
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+		@QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = BY_USER_CACHE_REGION) })
+	@Query("SELECT p.id FROM Portfolio p WHERE p.user.id = :userId")
+	Optional<String> findIdByUserId(@Param("userId") String userId);
+
+	/**
+	 * Find portfolio by ID with holdings loaded in the same query, for callers
+	 * that walk the holdings
+	 * 
+	 * @param id the portfolio ID
+	 * @return Optional containing portfolio with holdings
+	 */
+	@EntityGraph(Portfolio.WITH_HOLDINGS)
+	Optional<Portfolio> findWithHoldingsById(String id);
 
 	/**
 	 * Find portfolio by name
@@ -171,20 +208,25 @@ public interface PortfolioRepository extends JpaRepository<Portfolio, String> {
 	// ============================================================
 
 	/**
-	 * Find portfolio by user ID with holdings eagerly loaded (avoids N+1)
+	 * Find portfolio by user ID with holdings loaded in the same query (avoids N+1)
 	 * 
 	 * @param userId the user ID
 	 * @return Optional containing portfolio with holdings
 	 */
-	@Query("SELECT p FROM Portfolio p LEFT JOIN FETCH p.holdings WHERE p.user.id = :userId")
+	@EntityGraph(Portfolio.WITH_HOLDINGS)
+	@Query("SELECT p FROM Portfolio p WHERE p.user.id = :userId")
 	Optional<Portfolio> findByUserIdWithHoldings(@Param("userId") String userId);
 
 	/**
-	 * Find all portfolios with holdings eagerly loaded
+	 * Find all portfolios with holdings loaded in the same query. Holds every
+	 * portfolio in memory; jobs over the whole table should use
+	 * {@link HoldingRepository#streamAllWithPortfolio()}, which returns the
+	 * holdings grouped by portfolio.
 	 * 
 	 * @return list of portfolios with holdings
 	 */
-	@Query("SELECT DISTINCT p FROM Portfolio p LEFT JOIN FETCH p.holdings")
+	@EntityGraph(Portfolio.WITH_HOLDINGS)
+	@Query("SELECT p FROM Portfolio p")
 	List<Portfolio> findAllWithHoldings();
 
 	/**
@@ -225,6 +267,115 @@ public interface PortfolioRepository extends JpaRepository<Portfolio, String> {
 	 */
 	Page<Portfolio> findByTotalValueBetween(BigDecimal minValue, BigDecimal maxValue, Pageable pageable);
 
+	// ============================================================
+	// Bulk Revaluation
+	// ============================================================
+
+	/**
+	 * SET clause recomputing total value, gain/loss, cost basis, gain/loss percent
+	 * and daily change from a portfolio's holdings. Mirrors the arithmetic of
+	 * PortfolioService.recalculatePortfolioValue.
+	 */
+	String REFRESH_TOTALS_SET = "UPDATE portfolios p SET " +
+	       "total_value = p.cash_balance + COALESCE((SELECT SUM(h.market_value) FROM holdings h WHERE h.portfolio_id = p.id), 0), " +
+	       "total_gain_loss = COALESCE((SELECT SUM(h.unrealized_pnl) FROM holdings h WHERE h.portfolio_id = p.id), 0), " +
+	       "total_cost_basis = COALESCE((SELECT SUM(ROUND(h.quantity * h.average_cost, 4)) FROM holdings h WHERE h.portfolio_id = p.id), 0), " +
+	       "total_gain_loss_percent = CASE " +
+	       "WHEN COALESCE((SELECT SUM(ROUND(h.quantity * h.average_cost, 4)) FROM holdings h WHERE h.portfolio_id = p.id), 0) > 0 " +
+	       "THEN ROUND(COALESCE((SELECT SUM(h.unrealized_pnl) FROM holdings h WHERE h.portfolio_id = p.id), 0) " +
+	       "/ (SELECT SUM(ROUND(h.quantity * h.average_cost, 4)) FROM holdings h WHERE h.portfolio_id = p.id), 4) * 100 " +
+	       "ELSE 0 END, " +
+	       "daily_change = CASE WHEN p.previous_close_value IS NULL THEN p.daily_change " +
+	       "ELSE p.cash_balance + COALESCE((SELECT SUM(h.market_value) FROM holdings h WHERE h.portfolio_id = p.id), 0) " +
+	       "- p.previous_close_value END, " +
+	       "daily_change_percent = CASE WHEN p.previous_close_value IS NULL THEN p.daily_change_percent " +
+	       "WHEN p.previous_close_value > 0 " +
+	       "THEN ROUND((p.cash_balance + COALESCE((SELECT SUM(h.market_value) FROM holdings h WHERE h.portfolio_id = p.id), 0) " +
+	       "- p.previous_close_value) / p.previous_close_value, 4) * 100 " +
+	       "ELSE 0 END, " +
+	       "updated_at = CURRENT_TIMESTAMP ";
+
+	/**
+	 * Refresh the totals of every portfolio holding one of the given symbols, in a
+	 * single UPDATE
+	 *
+	 * @param symbols the repriced symbols
+	 * @return number of portfolios updated
+	 */
+	@Modifying
+	@Query(value = REFRESH_TOTALS_SET +
+	       "WHERE p.id IN (SELECT DISTINCT h.portfolio_id FROM holdings h WHERE h.symbol IN (:symbols))",
+	       nativeQuery = true)
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "portfolios"))
+	int refreshTotalsForSymbols(@Param("symbols") Collection<String> symbols);
+
+	/**
+	 * Refresh the totals of the given portfolios, in a single UPDATE
+	 *
+	 * @param portfolioIds the portfolio IDs
+	 * @return number of portfolios updated
+	 */
+	@Modifying
+	@Query(value = REFRESH_TOTALS_SET + "WHERE p.id IN (:portfolioIds)", nativeQuery = true)
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "portfolios"))
+	int refreshTotalsForPortfolios(@Param("portfolioIds") Collection<UUID> portfolioIds);
+
+	/**
+	 * Start a new trading day for every portfolio: the current total value
+	 * becomes the baseline daily change is measured against
+	 *
+	 * @return number of portfolios updated
+	 */
+	@Modifying
+	@Query("UPDATE Portfolio p SET p.previousCloseValue = p.totalValue, p.dailyChange = 0, p.dailyChangePercent = 0")
+	int captureDailyClose();
+
+	/**
+	 * Find portfolios whose stored aggregates disagree with their holdings
+	 *
+	 * @return list of portfolio IDs
+	 */
+	@Query(value = "SELECT p.id FROM portfolios p " +
+	       "LEFT JOIN (SELECT h.portfolio_id, SUM(h.market_value) AS market_value, SUM(h.unrealized_pnl) AS pnl, " +
+	       "SUM(ROUND(h.quantity * h.average_cost, 4)) AS cost_basis FROM holdings h GROUP BY h.portfolio_id) t " +
+	       "ON t.portfolio_id = p.id " +
+	       "WHERE p.total_value <> p.cash_balance + COALESCE(t.market_value, 0) " +
+	       "OR p.total_gain_loss IS NULL OR p.total_gain_loss <> COALESCE(t.pnl, 0) " +
+	       "OR p.total_cost_basis IS NULL OR p.total_cost_basis <> COALESCE(t.cost_basis, 0) " +
+	       "OR p.daily_change <> p.total_value - p.previous_close_value",
+	       nativeQuery = true)
+	List<UUID> findIdsWithStaleTotals();
+
+	// ============================================================
+	// Summary Projections
+	// ============================================================
+
+	/**
+	 * Selects portfolios straight into PortfolioSummaryResponse, counting the
+	 * holdings in SQL instead of loading them
+	 */
+	String SUMMARY_SELECT = "SELECT new com.finflow.portfolio.dto.response.PortfolioSummaryResponse(" +
+	       "p.id, p.user.id, p.name, p.totalValue, p.dailyChange, p.dailyChangePercent, " +
+	       "p.totalGainLoss, p.totalGainLossPercent, SIZE(p.holdings)) FROM Portfolio p ";
+
+	/**
+	 * Find the portfolio summary of a user
+	 * 
+	 * @param userId the user ID
+	 * @return Optional containing the summary if the user has a portfolio
+	 */
+	@Query(SUMMARY_SELECT + "WHERE p.user.id = :userId")
+	Optional<PortfolioSummaryResponse> findSummaryByUserId(@Param("userId") String userId);
+
+	/**
+	 * Find portfolio summaries by ID
+	 * 
+	 * @param ids the portfolio IDs
+	 * @return list of summaries
+	 */
+	@Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+	List<PortfolioSummaryResponse> findSummariesByIdIn(@Param("ids") Collection<String> ids);
+
 	// ============================================================
 	// Delete Operations
 	// ============================================================
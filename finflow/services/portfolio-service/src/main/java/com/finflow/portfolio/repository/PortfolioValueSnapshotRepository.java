@@ -0,0 +1,140 @@
+package com.finflow.portfolio.repository;
+
+import com.finflow.portfolio.domain.PortfolioValueSnapshot;
+import com.finflow.portfolio.domain.SnapshotResolution;
+import com.finflow.portfolio.dto.response.PerformancePointResponse;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PortfolioValueSnapshotRepository
+    extends JpaRepository<PortfolioValueSnapshot, PortfolioValueSnapshot.Key> {
+
+  // ============================================================
+  // Range Queries
+  // ============================================================
+
+  /**
+   * Find a portfolio's chart points at one resolution
+   *
+   * @param portfolioId the portfolio ID
+   * @param resolution  the resolution
+   * @param from        first bucket start (inclusive)
+   * @param to          last bucket start (exclusive)
+   * @return points ordered by time
+   */
+  @Query("SELECT new com.finflow.portfolio.dto.response.PerformancePointResponse(" +
+         "s.bucketStart, s.totalValue, s.lowValue, s.highValue, s.totalGainLoss) " +
+         "FROM PortfolioValueSnapshot s WHERE s.portfolioId = :portfolioId AND s.resolution = :resolution " +
+         "AND s.bucketStart >= :from AND s.bucketStart < :to ORDER BY s.bucketStart")
+  List<PerformancePointResponse> findPoints(
+      @Param("portfolioId") String portfolioId,
+      @Param("resolution") SnapshotResolution resolution,
+      @Param("from") Instant from,
+      @Param("to") Instant to);
+
+  /**
+   * Find the start of the earliest bucket kept at a resolution
+   *
+   * @param resolution the resolution
+   * @return bucket start, empty if there are none
+   */
+  @Query("SELECT MIN(s.bucketStart) FROM PortfolioValueSnapshot s WHERE s.resolution = :resolution")
+  Optional<Instant> findEarliestBucketStart(@Param("resolution") SnapshotResolution resolution);
+
+  /**
+   * Find the start of the latest bucket kept at a resolution
+   *
+   * @param resolution the resolution
+   * @return bucket start, empty if there are none
+   */
+  @Query("SELECT MAX(s.bucketStart) FROM PortfolioValueSnapshot s WHERE s.resolution = :resolution")
+  Optional<Instant> findLatestBucketStart(@Param("resolution") SnapshotResolution resolution);
+
+  // ============================================================
+  // Capture and Rollup
+  // ============================================================
+
+  /**
+   * Capture every portfolio's current totals as RAW snapshots. Portfolios
+   * already captured at this instant (by another instance) are skipped.
+   *
+   * @param at the snapshot bucket start
+   * @return number of rows inserted
+   */
+  @Modifying
+  @Query(value = "INSERT INTO portfolio_value_snapshots " +
+         "(portfolio_id, resolution, bucket_start, total_value, low_value, high_value, total_gain_loss, samples) " +
+         "SELECT p.id, 'RAW', :at, p.total_value, p.total_value, p.total_value, COALESCE(p.total_gain_loss, 0), 1 " +
+         "FROM portfolios p WHERE NOT EXISTS (SELECT 1 FROM portfolio_value_snapshots s " +
+         "WHERE s.portfolio_id = p.id AND s.resolution = 'RAW' AND s.bucket_start = :at)",
+         nativeQuery = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "portfolio_value_snapshots"))
+  int captureRaw(@Param("at") Instant at);
+
+  /**
+   * Roll one bucket up from the next finer resolution: the last value, lowest
+   * low and highest high of the source rows inside it, for every portfolio.
+   * Portfolios whose bucket is already rolled up (by another instance) are skipped.
+   *
+   * @param source      the source resolution name
+   * @param target      the target resolution name
+   * @param bucketStart the target bucket start (inclusive)
+   * @param bucketEnd   the target bucket end (exclusive)
+   * @return number of rows inserted
+   */
+  @Modifying
+  @Query(value = "INSERT INTO portfolio_value_snapshots " +
+         "(portfolio_id, resolution, bucket_start, total_value, low_value, high_value, total_gain_loss, samples) " +
+         "SELECT s.portfolio_id, :target, :bucketStart, s.total_value, a.low_value, a.high_value, " +
+         "s.total_gain_loss, a.samples " +
+         "FROM (SELECT portfolio_id, MAX(bucket_start) AS last_start, MIN(low_value) AS low_value, " +
+         "MAX(high_value) AS high_value, SUM(samples) AS samples FROM portfolio_value_snapshots " +
+         "WHERE resolution = :source AND bucket_start >= :bucketStart AND bucket_start < :bucketEnd " +
+         "GROUP BY portfolio_id) a " +
+         "JOIN portfolio_value_snapshots s ON s.portfolio_id = a.portfolio_id " +
+         "AND s.resolution = :source AND s.bucket_start = a.last_start " +
+         "WHERE NOT EXISTS (SELECT 1 FROM portfolio_value_snapshots t " +
+         "WHERE t.portfolio_id = s.portfolio_id AND t.resolution = :target AND t.bucket_start = :bucketStart)",
+         nativeQuery = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "portfolio_value_snapshots"))
+  int rollUp(
+      @Param("source") String source,
+      @Param("target") String target,
+      @Param("bucketStart") Instant bucketStart,
+      @Param("bucketEnd") Instant bucketEnd);
+
+  // ============================================================
+  // Retention and Cleanup
+  // ============================================================
+
+  /**
+   * Remove the buckets of a resolution that fell out of its retention window
+   *
+   * @param resolution the resolution
+   * @param before     buckets starting before this are removed
+   * @return number of rows deleted
+   */
+  @Modifying
+  @Query("DELETE FROM PortfolioValueSnapshot s WHERE s.resolution = :resolution AND s.bucketStart < :before")
+  int deleteOlderThan(@Param("resolution") SnapshotResolution resolution, @Param("before") Instant before);
+
+  /**
+   * Remove a portfolio's history, with the portfolio
+   *
+   * @param portfolioId the portfolio ID
+   */
+  @Modifying
+  @Query("DELETE FROM PortfolioValueSnapshot s WHERE s.portfolioId = :portfolioId")
+  void deleteByPortfolioId(@Param("portfolioId") String portfolioId);
+}
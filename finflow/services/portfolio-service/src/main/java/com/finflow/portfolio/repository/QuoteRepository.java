@@ -0,0 +1,47 @@
+package com.finflow.portfolio.repository;
+
+import com.finflow.portfolio.domain.Quote;
+import com.finflow.portfolio.infrastructure.quote.SymbolPrice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface QuoteRepository extends JpaRepository<Quote, String> {
+
+  /**
+   * Insert or replace the quote of a symbol unless the stored one was observed
+   * later; parameters are symbol, price and observed-at timestamp. Sent as a
+   * JDBC batch by revaluation. Standard MERGE, run by both H2 and PostgreSQL 15.
+   */
+  String UPSERT_SQL = "MERGE INTO quotes q " +
+         "USING (VALUES (CAST(? AS VARCHAR(20)), CAST(? AS NUMERIC(19,4)), CAST(? AS TIMESTAMP(6)))) " +
+         "AS s (symbol, price, observed_at) ON q.symbol = s.symbol " +
+         "WHEN MATCHED AND q.observed_at <= s.observed_at THEN UPDATE SET price = s.price, observed_at = s.observed_at " +
+         "WHEN NOT MATCHED THEN INSERT (symbol, price, observed_at) VALUES (s.symbol, s.price, s.observed_at)";
+
+  /**
+   * Find the stored price of a symbol
+   *
+   * @param symbol the asset symbol
+   * @return Optional containing the price if the symbol was ever revalued
+   */
+  @Query("SELECT q.price FROM Quote q WHERE q.symbol = :symbol")
+  Optional<BigDecimal> findPriceBySymbol(@Param("symbol") String symbol);
+
+  /**
+   * Find the stored prices of many symbols (used to load the quote cache in bulk)
+   *
+   * @param symbols the asset symbols
+   * @return list of prices; symbols never revalued are absent
+   */
+  @Query("SELECT new com.finflow.portfolio.infrastructure.quote.SymbolPrice(q.symbol, q.price) " +
+         "FROM Quote q WHERE q.symbol IN :symbols")
+  List<SymbolPrice> findPricesBySymbolIn(@Param("symbols") Collection<String> symbols);
+}
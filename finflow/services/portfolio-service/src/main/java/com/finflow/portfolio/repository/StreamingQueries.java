@@ -0,0 +1,19 @@
+package com.finflow.portfolio.repository;
+
+/**
+ * Hint values shared by the repository methods that return a {@link java.util.stream.Stream}.
+ *
+ * Streams are read through a JDBC cursor of {@link #FETCH_SIZE} rows, so they
+ * must be consumed inside a transaction and closed afterwards. Entities come
+ * back read-only: changes made to them are not flushed.
+ */
+public final class StreamingQueries {
+
+	/**
+	 * Rows fetched per round trip while a stream is consumed
+	 */
+	public static final String FETCH_SIZE = "1000";
+
+	private StreamingQueries() {
+	}
+}
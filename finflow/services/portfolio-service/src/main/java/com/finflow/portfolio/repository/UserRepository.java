@@ -1,19 +1,30 @@
 package com.finflow.portfolio.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.finflow.portfolio.domain.User;
+import com.finflow.portfolio.infrastructure.index.IndexedUser;
 
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
 
 @Repository
@@ -24,17 +35,19 @@ public interface UserRepository extends JpaRepository<User, String> {
 	// ============================================================
 
 	/**
-	 * Find user by email address
+	 * Find user by email address, with its portfolio in the same query
 	 * @param email the email to search for
 	 * @return Optional containing the user if found
 	 */
+	@EntityGraph(User.SUMMARY)
 	Optional<User> findByEmail(String email);
 
 	/**
-	 * Find user by username
+	 * Find user by username, with its portfolio in the same query
 	 * @param username the username to search for
 	 * @return Optional containing the user if found
 	 */
+	@EntityGraph(User.SUMMARY)
 	Optional<User> findByUsername(String username);
 
 	/**
@@ -71,6 +84,23 @@ public interface UserRepository extends JpaRepository<User, String> {
 	// Existence Checks (for validation)
 	// ============================================================
 
+	/**
+	 * Second-level cache region of the user existence check
+	 */
+	String EXISTS_CACHE_REGION = "user.exists";
+
+	/**
+	 * Check if a user exists. Redeclared so the check is served from the query
+	 * cache; it is invalidated by any write to the users table.
+	 * @param id the user ID
+	 * @return true if the user exists, false otherwise
+	 */
+	@Override
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+		@QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EXISTS_CACHE_REGION) })
+	boolean existsById(String id);
+
 	/**
 	 * Check if email already exists (for registration validation)
 	 * @param email the email to check
@@ -143,10 +173,34 @@ public interface UserRepository extends JpaRepository<User, String> {
 	 * @param pageable pagination parameters
 	 * @return page of matching users
 	 */
+	@EntityGraph(User.SUMMARY)
 	@Query("SELECT u FROM User u WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :search, '%')) " +
 	       "OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))")
 	Page<User> searchUsers(@Param("search") String search, Pageable pageable);
 
+	/**
+	 * Search users by username or email (case-insensitive) without counting the matches
+	 * @param search the search term
+	 * @param pageable pagination parameters
+	 * @return slice of matching users, which only knows whether a next page exists
+	 */
+	@EntityGraph(User.SUMMARY)
+	@Query("SELECT u FROM User u WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :search, '%')) " +
+	       "OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))")
+	Slice<User> searchUsersSlice(@Param("search") String search, Pageable pageable);
+
+	/**
+	 * Search users by username or email (case-insensitive) by keyset, ordered by username then ID
+	 * @param username the search term matched against the username
+	 * @param email the search term matched against the email
+	 * @param position the keyset position to scroll from
+	 * @param limit maximum number of users
+	 * @return window of matching users
+	 */
+	@EntityGraph(User.SUMMARY)
+	Window<User> findByUsernameContainingIgnoreCaseOrEmailContainingIgnoreCaseOrderByUsernameAscIdAsc(
+			String username, String email, ScrollPosition position, Limit limit);
+
 	// ============================================================
 	// Delete Operations
 	// ============================================================
@@ -172,20 +226,55 @@ public interface UserRepository extends JpaRepository<User, String> {
 	// ============================================================
 
 	/**
-	 * Find user by ID with portfolio eagerly loaded (avoids N+1 query)
+	 * Find user by ID with portfolio loaded in the same query (avoids N+1 query)
 	 * @param id the user ID
 	 * @return Optional containing the user with portfolio if found
 	 */
-	@Query("SELECT u FROM User u LEFT JOIN FETCH u.portfolio WHERE u.id = :id")
+	@EntityGraph(User.SUMMARY)
+	@Query("SELECT u FROM User u WHERE u.id = :id")
 	Optional<User> findByIdWithPortfolio(@Param("id") String id);
 
 	/**
-	 * Find all users who have a portfolio
+	 * Find users by ID with their portfolios loaded in the same query
+	 * @param ids the user IDs
+	 * @return list of the users found, in no particular order
+	 */
+	@EntityGraph(User.SUMMARY)
+	List<User> findByIdIn(Collection<String> ids);
+
+	/**
+	 * Find all users who have a portfolio. Holds every such user in memory;
+	 * jobs over the whole table should use {@link #streamUsersWithPortfolios()}.
 	 * @return list of users with portfolios
 	 */
 	@Query("SELECT u FROM User u WHERE u.portfolio IS NOT NULL")
 	List<User> findUsersWithPortfolios();
 
+	/**
+	 * Stream users who have a portfolio through a cursor, with the portfolio in
+	 * the same query (see {@link StreamingQueries}). Bypasses the second-level
+	 * cache so a pass over every user does not evict the hot entries.
+	 * @return stream of users with portfolios, to be closed by the caller
+	 */
+	@EntityGraph(User.SUMMARY)
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+		@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE") })
+	@Query("SELECT u FROM User u WHERE u.portfolio IS NOT NULL")
+	Stream<User> streamUsersWithPortfolios();
+
+	/**
+	 * Stream the searchable fields of every user through a cursor without
+	 * hydrating entities (used to build the user search index)
+	 * @return stream of indexed users, to be closed by the caller
+	 */
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("SELECT new com.finflow.portfolio.infrastructure.index.IndexedUser(u.id, u.username, u.email) FROM User u")
+	Stream<IndexedUser> streamAllIndexedUsers();
+
 	/**
 	 * Find all users who don't have a portfolio yet
 	 * @return list of users without portfolios
@@ -0,0 +1,114 @@
+-- Tables as mapped by the JPA entities in com.finflow.portfolio.domain.
+-- IDs are time-ordered UUIDs generated by the application (TimeOrderedIdGenerator).
+-- Hibernate validates this schema on startup (spring.jpa.hibernate.ddl-auto=validate),
+-- so a column changed on an entity needs a migration here.
+
+CREATE TABLE users (
+    id            UUID         PRIMARY KEY,
+    email         VARCHAR(255) NOT NULL,
+    username      VARCHAR(100) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    avatar        VARCHAR(500),
+    created_at    TIMESTAMP(6) NOT NULL,
+    updated_at    TIMESTAMP(6),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+-- One portfolio per user; the unique index on user_id is created in V2
+CREATE TABLE portfolios (
+    id                      UUID          PRIMARY KEY,
+    user_id                 UUID          NOT NULL REFERENCES users (id),
+    name                    VARCHAR(255)  NOT NULL,
+    total_value             NUMERIC(19,4) NOT NULL,
+    cash_balance            NUMERIC(19,4) NOT NULL,
+    buying_power            NUMERIC(19,4) NOT NULL,
+    daily_change            NUMERIC(19,4),
+    daily_change_percent    NUMERIC(10,4),
+    total_gain_loss         NUMERIC(19,4),
+    total_gain_loss_percent NUMERIC(10,4),
+    total_cost_basis        NUMERIC(19,4),
+    previous_close_value    NUMERIC(19,4),
+    created_at              TIMESTAMP(6)  NOT NULL,
+    updated_at              TIMESTAMP(6)
+);
+
+-- user_id is denormalized from the portfolio so per-user reads skip the join
+CREATE TABLE holdings (
+    id                     UUID          PRIMARY KEY,
+    portfolio_id           UUID          NOT NULL REFERENCES portfolios (id),
+    user_id                UUID          NOT NULL REFERENCES users (id),
+    symbol                 VARCHAR(20)   NOT NULL,
+    quantity               NUMERIC(19,8) NOT NULL,
+    average_cost           NUMERIC(19,4) NOT NULL,
+    current_price          NUMERIC(19,4),
+    market_value           NUMERIC(19,4),
+    unrealized_pnl         NUMERIC(19,4),
+    unrealized_pnl_percent NUMERIC(10,4),
+    asset_type             VARCHAR(20)   NOT NULL,
+    exchange               VARCHAR(50),
+    created_at             TIMESTAMP(6)  NOT NULL,
+    updated_at             TIMESTAMP(6)
+);
+
+CREATE TABLE external_accounts (
+    id               UUID          PRIMARY KEY,
+    user_id          UUID          NOT NULL REFERENCES users (id),
+    platform         VARCHAR(50)   NOT NULL,
+    account_name     VARCHAR(255)  NOT NULL,
+    account_number   VARCHAR(100),
+    status           VARCHAR(20)   NOT NULL,
+    last_sync_at     TIMESTAMP(6),
+    sync_enabled     BOOLEAN       NOT NULL,
+    access_token     VARCHAR(1000),
+    refresh_token    VARCHAR(1000),
+    token_expires_at TIMESTAMP(6),
+    created_at       TIMESTAMP(6)  NOT NULL,
+    updated_at       TIMESTAMP(6)
+);
+
+-- No foreign key to users: nothing deletes a user's orders yet
+CREATE TABLE orders (
+    id                 UUID          PRIMARY KEY,
+    user_id            UUID          NOT NULL,
+    symbol             VARCHAR(20)   NOT NULL,
+    side               VARCHAR(10)   NOT NULL,
+    type               VARCHAR(20)   NOT NULL,
+    quantity           NUMERIC(19,8) NOT NULL,
+    filled_quantity    NUMERIC(19,8),
+    remaining_quantity NUMERIC(19,8),
+    limit_price        NUMERIC(19,4),
+    stop_price         NUMERIC(19,4),
+    status             VARCHAR(20)   NOT NULL,
+    exchange           VARCHAR(50),
+    external_id        VARCHAR(255),
+    created_at         TIMESTAMP(6)  NOT NULL,
+    updated_at         TIMESTAMP(6),
+    filled_at          TIMESTAMP(6),
+    cancelled_at       TIMESTAMP(6)
+);
+
+-- One row per user and asset type, maintained by deltas
+CREATE TABLE holding_totals (
+    user_id        UUID          NOT NULL REFERENCES users (id),
+    asset_type     VARCHAR(20)   NOT NULL,
+    holdings_count BIGINT        NOT NULL,
+    market_value   NUMERIC(19,4) NOT NULL,
+    unrealized_pnl NUMERIC(19,4) NOT NULL,
+    cost_basis     NUMERIC(19,4) NOT NULL,
+    PRIMARY KEY (user_id, asset_type)
+);
+
+-- Append-mostly time series; no foreign key so the per-minute capture does not
+-- check every row against portfolios. The primary key serves chart range reads.
+CREATE TABLE portfolio_value_snapshots (
+    portfolio_id    UUID                        NOT NULL,
+    resolution      VARCHAR(20)                 NOT NULL,
+    bucket_start    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    total_value     NUMERIC(19,4)               NOT NULL,
+    low_value       NUMERIC(19,4)               NOT NULL,
+    high_value      NUMERIC(19,4)               NOT NULL,
+    total_gain_loss NUMERIC(19,4)               NOT NULL,
+    samples         INTEGER                     NOT NULL,
+    PRIMARY KEY (portfolio_id, resolution, bucket_start)
+);
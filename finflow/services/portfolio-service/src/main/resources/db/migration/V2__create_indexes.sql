@@ -0,0 +1,48 @@
+-- Indexes for the repository queries. Each one has a benchmark query with the
+-- plan it is expected to produce in infrastructure/database/explain-indexes.sql.
+--
+-- users.email and users.username are covered by their unique constraints, the
+-- snapshot chart reads by the primary key of portfolio_value_snapshots.
+
+-- PortfolioRepository.findIdByUserId (every by-user lookup): index-only scan
+CREATE UNIQUE INDEX uk_portfolio_user ON portfolios (user_id) INCLUDE (id);
+
+-- PortfolioRepository.findAllByOrderByTotalValueDesc (leaderboard)
+CREATE INDEX idx_portfolio_total_value ON portfolios (total_value DESC);
+
+-- Portfolio.holdings, holdings counts in summaries and deletes by portfolio
+CREATE INDEX idx_holding_portfolio ON holdings (portfolio_id, id);
+
+-- Revaluation by symbol
+CREATE INDEX idx_holding_symbol ON holdings (symbol);
+
+-- Per-user reads, findByUserIdAndSymbol and the (symbol, id) keyset scroll
+CREATE INDEX idx_holding_user_symbol ON holdings (user_id, symbol, id);
+
+-- HoldingRepository.findByUserIdOrderByMarketValueDesc: top positions without a sort
+CREATE INDEX idx_holding_user_market_value ON holdings (user_id, market_value DESC);
+
+-- HoldingRepository.findByUserIdOrderByUnrealizedPnLDesc
+CREATE INDEX idx_holding_user_pnl ON holdings (user_id, unrealized_pnl DESC);
+
+-- Accounts by user, and by user and platform
+CREATE INDEX idx_external_account_user ON external_accounts (user_id, platform);
+
+-- Accounts by status, and the (created_at, id) keyset scroll within a status
+CREATE INDEX idx_external_account_status_created ON external_accounts (status, created_at, id);
+
+-- ExternalAccountRepository.streamAccountsReadyToSync:
+-- only the accounts the sync job reads, least recently synced first
+CREATE INDEX idx_external_account_ready_to_sync ON external_accounts (last_sync_at NULLS FIRST)
+    WHERE status = 'CONNECTED' AND sync_enabled;
+
+-- Expired and soon-expiring tokens; accounts without a token are left out
+CREATE INDEX idx_external_account_token_expiry ON external_accounts (token_expires_at)
+    WHERE token_expires_at IS NOT NULL;
+
+CREATE INDEX idx_order_user_symbol ON orders (user_id, symbol);
+CREATE INDEX idx_order_symbol ON orders (symbol);
+CREATE INDEX idx_order_status ON orders (status);
+
+-- Rollups and retention deletes per resolution
+CREATE INDEX idx_snapshot_resolution_bucket ON portfolio_value_snapshots (resolution, bucket_start);
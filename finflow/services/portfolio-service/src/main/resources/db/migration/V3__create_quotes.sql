@@ -0,0 +1,8 @@
+-- Latest price per symbol from the price feed, written by revaluation and read by
+-- the quote cache on a miss. Keyed by symbol, so a lookup is a primary key probe.
+
+CREATE TABLE quotes (
+    symbol      VARCHAR(20)   PRIMARY KEY,
+    price       NUMERIC(19,4) NOT NULL,
+    observed_at TIMESTAMP(6)  NOT NULL
+);
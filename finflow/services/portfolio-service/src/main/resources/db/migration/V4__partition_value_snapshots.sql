@@ -0,0 +1,71 @@
+-- Partitions portfolio_value_snapshots by resolution, then RAW, FIVE_MINUTES and
+-- HOURLY by the UTC day of bucket_start. Once every bucket of a day has left its
+-- resolution's retention window the day's partition is dropped whole
+-- (SnapshotPartitions) instead of deleted row by row; the range delete only trims
+-- the day the window ends in. DAILY rows are kept indefinitely and stay in one
+-- partition. Chart reads and rollups name their resolution, so they touch a single
+-- list partition.
+--
+-- The service creates day partitions a few days ahead of time. A row outside every
+-- day partition lands in its resolution's default partition and is removed by the
+-- range delete.
+
+ALTER TABLE portfolio_value_snapshots RENAME TO portfolio_value_snapshots_unpartitioned;
+ALTER TABLE portfolio_value_snapshots_unpartitioned
+    RENAME CONSTRAINT portfolio_value_snapshots_pkey TO portfolio_value_snapshots_unpartitioned_pkey;
+DROP INDEX idx_snapshot_resolution_bucket;
+
+CREATE TABLE portfolio_value_snapshots (
+    portfolio_id    UUID                        NOT NULL,
+    resolution      VARCHAR(20)                 NOT NULL,
+    bucket_start    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    total_value     NUMERIC(19,4)               NOT NULL,
+    low_value       NUMERIC(19,4)               NOT NULL,
+    high_value      NUMERIC(19,4)               NOT NULL,
+    total_gain_loss NUMERIC(19,4)               NOT NULL,
+    samples         INTEGER                     NOT NULL,
+    PRIMARY KEY (portfolio_id, resolution, bucket_start)
+) PARTITION BY LIST (resolution);
+
+CREATE TABLE portfolio_value_snapshots_raw PARTITION OF portfolio_value_snapshots
+    FOR VALUES IN ('RAW') PARTITION BY RANGE (bucket_start);
+CREATE TABLE portfolio_value_snapshots_five_minutes PARTITION OF portfolio_value_snapshots
+    FOR VALUES IN ('FIVE_MINUTES') PARTITION BY RANGE (bucket_start);
+CREATE TABLE portfolio_value_snapshots_hourly PARTITION OF portfolio_value_snapshots
+    FOR VALUES IN ('HOURLY') PARTITION BY RANGE (bucket_start);
+CREATE TABLE portfolio_value_snapshots_daily PARTITION OF portfolio_value_snapshots
+    FOR VALUES IN ('DAILY');
+
+CREATE TABLE portfolio_value_snapshots_raw_default PARTITION OF portfolio_value_snapshots_raw DEFAULT;
+CREATE TABLE portfolio_value_snapshots_five_minutes_default PARTITION OF portfolio_value_snapshots_five_minutes DEFAULT;
+CREATE TABLE portfolio_value_snapshots_hourly_default PARTITION OF portfolio_value_snapshots_hourly DEFAULT;
+
+-- Rollups and retention deletes per resolution
+CREATE INDEX idx_snapshot_resolution_bucket ON portfolio_value_snapshots (resolution, bucket_start);
+
+-- Day partitions for the history already kept and for the next three days, named
+-- <resolution partition>_pYYYYMMDD like the ones the service creates
+DO $$
+DECLARE
+    part RECORD;
+BEGIN
+    FOR part IN
+        SELECT DISTINCT s.resolution, (s.bucket_start AT TIME ZONE 'UTC')::date AS day
+        FROM portfolio_value_snapshots_unpartitioned s
+        WHERE s.resolution <> 'DAILY'
+        UNION
+        SELECT r.resolution, (now() AT TIME ZONE 'UTC')::date + d
+        FROM unnest(ARRAY['RAW', 'FIVE_MINUTES', 'HOURLY']) r (resolution), generate_series(0, 3) d
+    LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+            'portfolio_value_snapshots_' || lower(part.resolution) || '_p' || to_char(part.day, 'YYYYMMDD'),
+            'portfolio_value_snapshots_' || lower(part.resolution),
+            part.day::timestamp AT TIME ZONE 'UTC',
+            (part.day + 1)::timestamp AT TIME ZONE 'UTC');
+    END LOOP;
+END
+$$;
+
+INSERT INTO portfolio_value_snapshots SELECT * FROM portfolio_value_snapshots_unpartitioned;
+DROP TABLE portfolio_value_snapshots_unpartitioned;
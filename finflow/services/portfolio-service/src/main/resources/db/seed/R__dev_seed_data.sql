@@ -0,0 +1,102 @@
+-- Sample data for local development and for trying out the indexes and queries,
+-- ported from the old infrastructure/database/seed.sql to the V1 schema.
+-- Only applied with the seed profile (application-seed.properties), which adds
+-- db/seed to the Flyway locations; Flyway re-runs it whenever this file changes,
+-- so every insert skips rows that are already there.
+--
+-- Differences from the old seed:
+-- - IDs are fixed UUIDs instead of SERIAL values.
+-- - A user has one portfolio, so Alice's crypto holdings are in her main one.
+-- - There is no transactions table; an order's fills are summed into its
+--   filled_quantity, and its filled_at is the time of its last fill.
+-- - Holdings are valued at their average cost until the first price tick.
+
+INSERT INTO users (id, email, username, password_hash, created_at, updated_at) VALUES
+('00000000-0000-7000-8000-000000000001', 'alice@test.com', 'alice', 'seed-no-login', NOW() - INTERVAL '6 months', NOW()),
+('00000000-0000-7000-8000-000000000002', 'bob@test.com', 'bob', 'seed-no-login', NOW() - INTERVAL '4 months', NOW()),
+('00000000-0000-7000-8000-000000000003', 'charlie@test.com', 'charlie', 'seed-no-login', NOW() - INTERVAL '2 months', NOW())
+ON CONFLICT DO NOTHING;
+
+INSERT INTO portfolios (id, user_id, name, total_value, cash_balance, buying_power, created_at, updated_at) VALUES
+('00000000-0000-7000-8000-000000000101', '00000000-0000-7000-8000-000000000001', 'Alice Main Portfolio', 0, 10000, 10000, NOW() - INTERVAL '6 months', NOW()),
+('00000000-0000-7000-8000-000000000103', '00000000-0000-7000-8000-000000000002', 'Bob Trading Account', 0, 10000, 10000, NOW() - INTERVAL '4 months', NOW()),
+('00000000-0000-7000-8000-000000000104', '00000000-0000-7000-8000-000000000003', 'Charlie Conservative Fund', 0, 10000, 10000, NOW() - INTERVAL '2 months', NOW())
+ON CONFLICT DO NOTHING;
+
+INSERT INTO holdings (id, portfolio_id, user_id, symbol, quantity, average_cost, current_price, market_value,
+                      unrealized_pnl, unrealized_pnl_percent, asset_type, created_at, updated_at)
+SELECT id::uuid, portfolio_id::uuid, user_id::uuid, symbol, quantity, average_cost, average_cost,
+       ROUND(quantity * average_cost, 4), 0, 0, asset_type, NOW(), NOW()
+FROM (VALUES
+    ('00000000-0000-7000-8000-000000000201', '00000000-0000-7000-8000-000000000101', '00000000-0000-7000-8000-000000000001', 'AAPL', 10.00000000, 150.5000, 'STOCK'),
+    ('00000000-0000-7000-8000-000000000202', '00000000-0000-7000-8000-000000000101', '00000000-0000-7000-8000-000000000001', 'GOOGL', 5.00000000, 2800.0000, 'STOCK'),
+    ('00000000-0000-7000-8000-000000000203', '00000000-0000-7000-8000-000000000101', '00000000-0000-7000-8000-000000000001', 'TSLA', 15.00000000, 225.7500, 'STOCK'),
+    ('00000000-0000-7000-8000-000000000204', '00000000-0000-7000-8000-000000000101', '00000000-0000-7000-8000-000000000001', 'BTC', 0.50000000, 45000.0000, 'CRYPTO'),
+    ('00000000-0000-7000-8000-000000000205', '00000000-0000-7000-8000-000000000101', '00000000-0000-7000-8000-000000000001', 'ETH', 2.00000000, 3200.0000, 'CRYPTO'),
+    ('00000000-0000-7000-8000-000000000206', '00000000-0000-7000-8000-000000000103', '00000000-0000-7000-8000-000000000002', 'AAPL', 20.00000000, 145.0000, 'STOCK'),
+    ('00000000-0000-7000-8000-000000000207', '00000000-0000-7000-8000-000000000103', '00000000-0000-7000-8000-000000000002', 'MSFT', 12.00000000, 380.0000, 'STOCK'),
+    ('00000000-0000-7000-8000-000000000208', '00000000-0000-7000-8000-000000000104', '00000000-0000-7000-8000-000000000003', 'SPY', 50.00000000, 450.0000, 'STOCK'),
+    ('00000000-0000-7000-8000-000000000209', '00000000-0000-7000-8000-000000000104', '00000000-0000-7000-8000-000000000003', 'VTI', 30.00000000, 220.0000, 'STOCK')
+) AS h (id, portfolio_id, user_id, symbol, quantity, average_cost, asset_type)
+ON CONFLICT DO NOTHING;
+
+INSERT INTO orders (id, user_id, symbol, side, type, quantity, filled_quantity, remaining_quantity, limit_price,
+                    status, created_at, updated_at, filled_at, cancelled_at)
+SELECT id::uuid, user_id::uuid, symbol, side, type, quantity, filled, quantity - filled, limit_price,
+       status, created_at, COALESCE(filled_at, cancelled_at, created_at), filled_at, cancelled_at
+FROM (VALUES
+    -- Alice
+    ('00000000-0000-7000-8000-000000000301', '00000000-0000-7000-8000-000000000001', 'AAPL', 'BUY', 'LIMIT', 10.00000000, 10.00000000, 150.0000, 'FILLED',
+     NOW() - INTERVAL '6 months', NOW() - INTERVAL '6 months', NULL::timestamp),
+    ('00000000-0000-7000-8000-000000000302', '00000000-0000-7000-8000-000000000001', 'GOOGL', 'BUY', 'MARKET', 5.00000000, 5.00000000, NULL, 'FILLED',
+     NOW() - INTERVAL '5 months', NOW() - INTERVAL '5 months' + INTERVAL '5 minutes', NULL),
+    ('00000000-0000-7000-8000-000000000303', '00000000-0000-7000-8000-000000000001', 'TSLA', 'BUY', 'LIMIT', 15.00000000, 15.00000000, 225.0000, 'FILLED',
+     NOW() - INTERVAL '4 months', NOW() - INTERVAL '4 months', NULL),
+    ('00000000-0000-7000-8000-000000000304', '00000000-0000-7000-8000-000000000001', 'BTC', 'BUY', 'MARKET', 0.50000000, 0.50000000, NULL, 'FILLED',
+     NOW() - INTERVAL '3 months', NOW() - INTERVAL '3 months' + INTERVAL '10 minutes', NULL),
+    ('00000000-0000-7000-8000-000000000305', '00000000-0000-7000-8000-000000000001', 'ETH', 'BUY', 'LIMIT', 2.00000000, 2.00000000, 3200.0000, 'FILLED',
+     NOW() - INTERVAL '2 months', NOW() - INTERVAL '2 months', NULL),
+    ('00000000-0000-7000-8000-000000000306', '00000000-0000-7000-8000-000000000001', 'AAPL', 'SELL', 'LIMIT', 5.00000000, 0, 175.0000, 'PENDING',
+     NOW() - INTERVAL '1 day', NULL, NULL),
+    ('00000000-0000-7000-8000-000000000307', '00000000-0000-7000-8000-000000000001', 'TSLA', 'BUY', 'LIMIT', 5.00000000, 0, 220.0000, 'PENDING',
+     NOW() - INTERVAL '2 hours', NULL, NULL),
+    -- Bob
+    ('00000000-0000-7000-8000-000000000308', '00000000-0000-7000-8000-000000000002', 'AAPL', 'BUY', 'MARKET', 20.00000000, 20.00000000, NULL, 'FILLED',
+     NOW() - INTERVAL '4 months', NOW() - INTERVAL '4 months', NULL),
+    ('00000000-0000-7000-8000-000000000309', '00000000-0000-7000-8000-000000000002', 'MSFT', 'BUY', 'LIMIT', 12.00000000, 12.00000000, 380.0000, 'FILLED',
+     NOW() - INTERVAL '3 months', NOW() - INTERVAL '3 months' + INTERVAL '15 minutes', NULL),
+    ('00000000-0000-7000-8000-000000000310', '00000000-0000-7000-8000-000000000002', 'AAPL', 'SELL', 'LIMIT', 10.00000000, 0, 160.0000, 'CANCELLED',
+     NOW() - INTERVAL '2 months', NULL, NOW() - INTERVAL '2 months'),
+    ('00000000-0000-7000-8000-000000000311', '00000000-0000-7000-8000-000000000002', 'MSFT', 'BUY', 'LIMIT', 5.00000000, 0, 375.0000, 'PENDING',
+     NOW() - INTERVAL '3 days', NULL, NULL),
+    -- Charlie
+    ('00000000-0000-7000-8000-000000000312', '00000000-0000-7000-8000-000000000003', 'SPY', 'BUY', 'MARKET', 50.00000000, 50.00000000, NULL, 'FILLED',
+     NOW() - INTERVAL '2 months', NOW() - INTERVAL '2 months', NULL),
+    ('00000000-0000-7000-8000-000000000313', '00000000-0000-7000-8000-000000000003', 'VTI', 'BUY', 'LIMIT', 30.00000000, 30.00000000, 220.0000, 'FILLED',
+     NOW() - INTERVAL '1 month', NOW() - INTERVAL '1 month', NULL),
+    ('00000000-0000-7000-8000-000000000314', '00000000-0000-7000-8000-000000000003', 'SPY', 'BUY', 'LIMIT', 10.00000000, 0, 448.0000, 'PENDING',
+     NOW() - INTERVAL '5 hours', NULL, NULL)
+) AS o (id, user_id, symbol, side, type, quantity, filled, limit_price, status, created_at, filled_at, cancelled_at)
+ON CONFLICT DO NOTHING;
+
+-- Derived values, computed as the service's reconciliation does
+INSERT INTO holding_totals (user_id, asset_type, holdings_count, market_value, unrealized_pnl, cost_basis)
+SELECT h.user_id, h.asset_type, COUNT(*), SUM(h.market_value), SUM(h.unrealized_pnl),
+       SUM(ROUND(h.quantity * h.average_cost, 4))
+FROM holdings h
+WHERE h.user_id IN ('00000000-0000-7000-8000-000000000001', '00000000-0000-7000-8000-000000000002',
+                    '00000000-0000-7000-8000-000000000003')
+GROUP BY h.user_id, h.asset_type
+ON CONFLICT DO NOTHING;
+
+UPDATE portfolios p SET
+    total_cost_basis = a.cost_basis,
+    total_value = p.cash_balance + a.market_value,
+    total_gain_loss = 0,
+    total_gain_loss_percent = 0
+FROM (SELECT h.portfolio_id, SUM(h.market_value) AS market_value, SUM(ROUND(h.quantity * h.average_cost, 4)) AS cost_basis
+      FROM holdings h GROUP BY h.portfolio_id) a
+WHERE a.portfolio_id = p.id
+  AND p.id IN ('00000000-0000-7000-8000-000000000101', '00000000-0000-7000-8000-000000000103',
+               '00000000-0000-7000-8000-000000000104')
+  AND p.total_cost_basis IS NULL;
@@ -0,0 +1,280 @@
+package com.finflow.portfolio.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finflow.portfolio.infrastructure.kafka.PortfolioEventProducer;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * SQL budgets per endpoint, counted with Hibernate statistics.
+ *
+ * Each case seeds a user with a portfolio of {@value #HOLDINGS} holdings and an
+ * external account, empties the second-level cache and runs one request. It
+ * then asserts how many statements Hibernate prepared and how many entities it
+ * hydrated. A lazy association walked once per holding costs
+ * {@value #HOLDINGS} statements and breaks the budget. Tighten a budget when a
+ * change improves its endpoint. Statements sent through JdbcTemplate are not
+ * counted.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.show-sql=false",
+    "app.kafka.price-ticks.enabled=false",
+    // Keep background jobs out of the measured requests
+    "app.portfolio.history.snapshot-interval-ms=3600000",
+    "app.portfolio.history.rollup-interval-ms=3600000",
+    "app.index.holdings.verify-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+class EndpointSqlBudgetTest {
+
+    private static final int HOLDINGS = 25;
+
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private PortfolioEventProducer eventProducer;
+
+    private Fixture fixture;
+
+    /**
+     * A request and its budget. The path and body may reference the fixture
+     * as {userId}, {username}, {email}, {portfolioId}, {holdingId}, {symbol}
+     * and {accountId}.
+     */
+    record Budget(HttpMethod method, String path, String body, int maxStatements, int maxEntities) {
+
+        static Budget get(String path, int maxStatements, int maxEntities) {
+            return new Budget(HttpMethod.GET, path, null, maxStatements, maxEntities);
+        }
+
+        static Budget post(String path, String body, int maxStatements, int maxEntities) {
+            return new Budget(HttpMethod.POST, path, body, maxStatements, maxEntities);
+        }
+
+        static Budget put(String path, String body, int maxStatements, int maxEntities) {
+            return new Budget(HttpMethod.PUT, path, body, maxStatements, maxEntities);
+        }
+
+        static Budget delete(String path, int maxStatements, int maxEntities) {
+            return new Budget(HttpMethod.DELETE, path, null, maxStatements, maxEntities);
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + path;
+        }
+    }
+
+    record Fixture(Map<String, String> values) {
+
+        String expand(String template) {
+            String expanded = template;
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                expanded = expanded.replace("{" + entry.getKey() + "}", entry.getValue());
+            }
+            return expanded;
+        }
+    }
+
+    static Stream<Budget> budgets() {
+        return Stream.of(
+            // Users: UserResponse carries the portfolio ID, so the portfolio is joined into the user query
+            // New usernames and emails pass the uniqueness filters without an existence query
+            Budget.post("/api/users",
+                    "{\"username\":\"new{username}\",\"email\":\"new{email}\",\"password\":\"password123\"}", 1, 0),
+            Budget.get("/api/users/{userId}", 1, 2),
+            Budget.get("/api/users/email/{email}", 1, 2),
+            Budget.get("/api/users/username/{username}", 1, 2),
+            Budget.get("/api/users/{userId}/with-portfolio", 1, 2),
+            Budget.put("/api/users/{userId}", "{\"avatar\":\"https://example.com/a.png\"}", 2, 2),
+            Budget.delete("/api/users/{userId}", 8, 2),
+            // Search ranks and counts in the user search index, then loads the page by ID
+            Budget.get("/api/users/search?query={username}", 1, 2),
+            Budget.get("/api/users/search?query={username}&count=NONE", 1, 2),
+            Budget.get("/api/users/search/scroll?query={username}", 2, 2),
+
+            // Portfolios: PortfolioResponse counts the holdings in SQL instead of loading them
+            Budget.get("/api/portfolios/{portfolioId}", 2, 1),
+            Budget.get("/api/portfolios/user/{userId}", 3, 1),
+            // The holdings are selected into HoldingResponse
+            Budget.get("/api/portfolios/user/{userId}/with-holdings", 3, 1),
+            Budget.get("/api/portfolios/user/{userId}/summary", 1, 0),
+            Budget.get("/api/portfolios/user/{userId}/performance", 3, 1),
+            Budget.get("/api/portfolios/user/{userId}/exists", 1, 0),
+            Budget.put("/api/portfolios/{portfolioId}", "{\"name\":\"renamed\"}", 3, 1),
+            Budget.post("/api/portfolios/{portfolioId}/deposit?amount=100", null, 3, 1),
+            Budget.post("/api/portfolios/{portfolioId}/withdraw?amount=100", null, 3, 1),
+            // Reprices and sums the holdings in SQL
+            Budget.post("/api/portfolios/{portfolioId}/recalculate", null, 5, 1),
+            Budget.delete("/api/portfolios/{portfolioId}", 6, 1),
+
+            // Holdings
+            Budget.post("/api/holdings/user/{userId}",
+                    "{\"symbol\":\"NEW\",\"quantity\":2,\"averageCost\":10,\"assetType\":\"STOCK\"}", 7, 1),
+            Budget.post("/api/holdings/user/{userId}",
+                    "{\"symbol\":\"{symbol}\",\"quantity\":2,\"averageCost\":10,\"assetType\":\"STOCK\"}", 7, 2),
+            Budget.get("/api/holdings/{holdingId}", 1, 0),
+            Budget.get("/api/holdings/user/{userId}", 1, 0),
+            // Pages select into HoldingResponse; the count-free one reads one row past the page instead of counting
+            Budget.get("/api/holdings/user/{userId}/paginated", 2, 0),
+            Budget.get("/api/holdings/user/{userId}/paginated?count=NONE", 1, 0),
+            Budget.get("/api/holdings/user/{userId}/scroll", 1, 21),
+            Budget.get("/api/holdings/user/{userId}/type/STOCK", 1, 0),
+            Budget.get("/api/holdings/user/{userId}/total-value", 2, 1),
+            Budget.get("/api/holdings/user/{userId}/total-pnl", 2, 1),
+            Budget.get("/api/holdings/user/{userId}/totals", 1, 0),
+            Budget.put("/api/holdings/{holdingId}", "{\"quantity\":3}", 7, 2),
+            Budget.put("/api/holdings/{holdingId}/price?price=12", null, 5, 2),
+            Budget.post("/api/holdings/{holdingId}/sell?quantity=0.5&price=12", null, 5, 2),
+            Budget.post("/api/holdings/{holdingId}/sell?quantity=1.5&price=12", null, 5, 2),
+            Budget.delete("/api/holdings/{holdingId}", 5, 2),
+            // Imports another HOLDINGS holdings in one JDBC batch; the existing ones are matched by projection
+            Budget.post("/api/holdings/user/{userId}/import", null, 9, 2),
+
+            // Prices
+            Budget.post("/api/prices/batch", "{\"prices\":[{\"symbol\":\"{symbol}\",\"price\":12}]}", 3, 0),
+
+            // External accounts
+            Budget.post("/api/external-accounts/user/{userId}/connect",
+                    "{\"platform\":\"ROBINHOOD\",\"accessToken\":\"token\"}", 2, 0),
+            Budget.get("/api/external-accounts/{accountId}", 1, 1),
+            Budget.get("/api/external-accounts/user/{userId}", 1, 1),
+            Budget.get("/api/external-accounts/user/{userId}/connected", 1, 1),
+            Budget.get("/api/external-accounts/user/{userId}/platform/ALPACA", 1, 1),
+            Budget.put("/api/external-accounts/{accountId}", "{\"accountName\":\"renamed\"}", 2, 1),
+            Budget.post("/api/external-accounts/{accountId}/disconnect", null, 2, 1),
+            Budget.post("/api/external-accounts/{accountId}/sync/start", null, 2, 1),
+            Budget.post("/api/external-accounts/{accountId}/sync/complete", null, 2, 1),
+            Budget.post("/api/external-accounts/{accountId}/sync/error", null, 2, 1),
+            Budget.delete("/api/external-accounts/{accountId}", 3, 1),
+            Budget.get("/api/external-accounts/needs-token-refresh", 1, 1),
+            Budget.get("/api/external-accounts/status/CONNECTED/scroll", 1, 1),
+            Budget.get("/api/external-accounts/ready-to-sync", 1, 1));
+    }
+
+    @BeforeEach
+    void seed() throws Exception {
+        int n = USERS.incrementAndGet();
+        String username = "budget" + n;
+        String email = "budget" + n + "@example.com";
+
+        String userId = postForId("/api/users",
+                "{\"username\":\"" + username + "\",\"email\":\"" + email + "\",\"password\":\"password123\"}");
+        String portfolioId = postForId("/api/portfolios/user/" + userId,
+                "{\"name\":\"main\",\"initialCashBalance\":100000}");
+        mockMvc.perform(post("/api/holdings/user/" + userId + "/import")
+                .contentType("application/x-ndjson")
+                .content(holdingsNdjson(n)))
+            .andExpect(status().isCreated());
+        String holdingId = objectMapper.readTree(mockMvc.perform(request(HttpMethod.GET, "/api/holdings/user/" + userId))
+                .andReturn().getResponse().getContentAsString()).get(0).get("id").asText();
+        String accountId = postForId("/api/external-accounts/user/" + userId + "/connect",
+                "{\"platform\":\"ALPACA\",\"accessToken\":\"token\"}");
+
+        fixture = new Fixture(Map.of(
+                "userId", userId,
+                "username", username,
+                "email", email,
+                "portfolioId", portfolioId,
+                "holdingId", holdingId,
+                "symbol", symbol(n, 0),
+                "accountId", accountId));
+    }
+
+    @AfterEach
+    void removeFixture() throws Exception {
+        // Keeps listings that span users down to this case's rows
+        if (fixture != null) {
+            mockMvc.perform(delete("/api/users/" + fixture.values().get("userId")));
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("budgets")
+    void staysWithinBudget(Budget budget) throws Exception {
+        MockHttpServletRequestBuilder request = request(budget.method(), fixture.expand(budget.path()));
+        if (budget.path().endsWith("/import")) {
+            request.contentType("application/x-ndjson").content(holdingsNdjson(USERS.get() + 100_000));
+        } else if (budget.body() != null) {
+            request.contentType(MediaType.APPLICATION_JSON).content(fixture.expand(budget.body()));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            // Streamed responses run their queries while the body is written
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertThat(result.getResponse().getStatus()).as("status of %s", budget).isBetween(200, 299);
+
+        long statements = statistics.getPrepareStatementCount();
+        long entities = statistics.getEntityLoadCount();
+        assertThat(statements)
+            .as("SQL statements for %s (%d entities loaded)", budget, entities)
+            .isLessThanOrEqualTo(budget.maxStatements());
+        assertThat(entities)
+            .as("entities loaded for %s (%d statements)", budget, statements)
+            .isLessThanOrEqualTo(budget.maxEntities());
+    }
+
+    private String postForId(String path, String body) throws Exception {
+        String response = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        JsonNode node = objectMapper.readTree(response);
+        return node.get("id").asText();
+    }
+
+    private static String holdingsNdjson(int n) {
+        return IntStream.range(0, HOLDINGS)
+            .mapToObj(i -> "{\"symbol\":\"" + symbol(n, i) + "\",\"quantity\":1.5,\"averageCost\":10,\"assetType\":\"STOCK\"}")
+            .collect(Collectors.joining("\n"));
+    }
+
+    private static String symbol(int n, int i) {
+        return "B" + n + "X" + i;
+    }
+}
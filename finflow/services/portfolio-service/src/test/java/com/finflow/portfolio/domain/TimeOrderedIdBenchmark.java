@@ -0,0 +1,118 @@
+package com.finflow.portfolio.domain;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Insert throughput and on-disk size of a holdings-shaped table (primary key
+ * plus indexed portfolio_id and user_id) under three ID schemes: random UUIDs
+ * as 36-character text, as it was; random UUIDs in a native UUID column; and
+ * time-ordered UUIDs in a native UUID column, as it is now.
+ *
+ * Not part of the regular test run (the class name does not end in Test). Run with
+ * <pre>mvn test -Dtest=TimeOrderedIdBenchmark -Dsurefire.failIfNoSpecifiedTests=false</pre>
+ *
+ * Runs against a file-backed H2 database, so the numbers compare the schemes
+ * with each other rather than predict PostgreSQL's.
+ */
+class TimeOrderedIdBenchmark {
+
+    private static final int ROWS = 500_000;
+    private static final int PORTFOLIOS = 5_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Test
+    void compareIdSchemes() throws Exception {
+        System.out.printf("%-14s %12s %14s %14s%n", "scheme", "rows/s", "store MiB", "compacted MiB");
+        for (int round = 0; round < 2; round++) {
+            // The first round warms up the JIT and is not reported
+            boolean report = round == 1;
+            run("text, random", "VARCHAR(36)", () -> UUID.randomUUID(), id -> id.toString(), report);
+            run("uuid, random", "UUID", () -> UUID.randomUUID(), id -> id, report);
+            run("uuid, v7", "UUID", TimeOrderedIdGenerator::next, id -> id, report);
+        }
+    }
+
+    private static void run(String scheme, String idType, Supplier<UUID> ids, Function<UUID, Object> column,
+                            boolean report) throws Exception {
+        Path dir = Files.createTempDirectory("id-benchmark");
+        String url = "jdbc:h2:" + dir.resolve("db").toAbsolutePath();
+        try {
+            // Parents are created up front, like portfolios that exist long before their holdings
+            Object[] portfolioIds = new Object[PORTFOLIOS];
+            Object[] userIds = new Object[PORTFOLIOS];
+            for (int i = 0; i < PORTFOLIOS; i++) {
+                userIds[i] = column.apply(ids.get());
+                portfolioIds[i] = column.apply(ids.get());
+            }
+
+            long elapsedNanos;
+            try (Connection connection = DriverManager.getConnection(url)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE TABLE holdings (id " + idType + " PRIMARY KEY, "
+                        + "portfolio_id " + idType + " NOT NULL, user_id " + idType + " NOT NULL, "
+                        + "symbol VARCHAR(20) NOT NULL, quantity NUMERIC(19, 8) NOT NULL)");
+                    statement.execute("CREATE INDEX idx_holding_portfolio ON holdings (portfolio_id)");
+                    statement.execute("CREATE INDEX idx_holding_user ON holdings (user_id)");
+                }
+                connection.setAutoCommit(false);
+                elapsedNanos = insert(connection, ids, column, portfolioIds, userIds);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CHECKPOINT SYNC");
+                }
+            }
+            long storeBytes = Files.size(dir.resolve("db.mv.db"));
+
+            try (Connection connection = DriverManager.getConnection(url);
+                 Statement statement = connection.createStatement()) {
+                statement.execute("SHUTDOWN COMPACT");
+            }
+            long compactedBytes = Files.size(dir.resolve("db.mv.db"));
+
+            if (report) {
+                System.out.printf("%-14s %,12d %14.1f %14.1f%n", scheme, ROWS * 1_000_000_000L / elapsedNanos,
+                    storeBytes / 1048576.0, compactedBytes / 1048576.0);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static long insert(Connection connection, Supplier<UUID> ids, Function<UUID, Object> column,
+                               Object[] portfolioIds, Object[] userIds) throws SQLException {
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO holdings (id, portfolio_id, user_id, symbol, quantity) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                int portfolio = random.nextInt(PORTFOLIOS);
+                insert.setObject(1, column.apply(ids.get()));
+                insert.setObject(2, portfolioIds[portfolio]);
+                insert.setObject(3, userIds[portfolio]);
+                insert.setString(4, "S" + (i % 5_000));
+                insert.setLong(5, i);
+                insert.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,55 @@
+package com.finflow.portfolio.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void isVersion7WithTheCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = TimeOrderedIdGenerator.next();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        // The timestamp only runs ahead of the clock when the counter overflows
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, System.currentTimeMillis() + 1000);
+    }
+
+    @Test
+    void textFormIsStrictlyIncreasing() {
+        // The text form is what gets compared in the domain, so it must sort like the stored UUID
+        String previous = TimeOrderedIdGenerator.next().toString();
+        for (int i = 0; i < 200_000; i++) {
+            String next = TimeOrderedIdGenerator.next().toString();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void isUniqueAcrossThreads() {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 8).parallel().forEach(thread -> {
+            for (int i = 0; i < 50_000; i++) {
+                ids.add(TimeOrderedIdGenerator.next());
+            }
+        });
+
+        assertThat(ids).hasSize(400_000);
+    }
+
+    @Test
+    void toUuidMapsMalformedIdsToNil() {
+        UUID id = TimeOrderedIdGenerator.next();
+
+        assertThat(UuidStringJavaType.toUuid(id.toString())).isEqualTo(id);
+        assertThat(UuidStringJavaType.toUuid("not-an-id")).isEqualTo(new UUID(0, 0));
+    }
+}
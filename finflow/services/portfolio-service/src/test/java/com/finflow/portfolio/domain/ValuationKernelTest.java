@@ -0,0 +1,126 @@
+package com.finflow.portfolio.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Parity of the fixed-point kernel with the BigDecimal arithmetic that
+ * Holding.updateMarketValue used before it, including scales.
+ */
+class ValuationKernelTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        // quantity,       price,          average cost
+        "10.5,             170,            150.1234",
+        "0.12345678,       40000,          40000",
+        "0.00000001,       0.0001,         0.0001",
+        "0.00005,          1,              1",         // value exactly half a unit rounds up
+        "0.00004999,       1,              1",
+        "3,                0.3333,         0.3334",    // small loss
+        "1,                1,              3",         // percent rounds half away from zero
+        "7,                1.0001,         1.0002",
+        "123456.78901234,  98765.4321,     12345.6789",
+        "10000000000,      9999.9999,      0.0001",    // whole-unit product near the long limit
+        "2.5,              0.0002,         0.0003",
+        "1,                1,              0",         // zero cost basis
+        "0,                150,            150"        // fully sold position
+    })
+    void matchesBigDecimalValuation(String quantity, String price, String averageCost) {
+        assertParity(new BigDecimal(quantity), new BigDecimal(price), new BigDecimal(averageCost));
+    }
+
+    @Test
+    void matchesBigDecimalValuationForRandomPositions() {
+        Random random = new Random(20240117L);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal quantity = BigDecimal.valueOf(random.nextLong(1, 1_000_000_000_000L), 8);
+            BigDecimal price = BigDecimal.valueOf(random.nextLong(1, 1_000_000_000L), 4);
+            BigDecimal averageCost = BigDecimal.valueOf(random.nextLong(1, 1_000_000_000L), 4);
+            assertParity(quantity, price, averageCost);
+
+            // These magnitudes never overflow, so the kernel itself must agree too
+            assertThat(ValuationKernel.value(quantity.unscaledValue().longValue(), price.unscaledValue().longValue()))
+                .isEqualTo(Expected.of(quantity, price, averageCost).marketValue.unscaledValue().longValue());
+        }
+    }
+
+    @Test
+    void fallsBackToBigDecimalForFinerScales() {
+        assertParity(new BigDecimal("1.123456789"), new BigDecimal("10.12345"), new BigDecimal("9.99999"));
+    }
+
+    @Test
+    void fallsBackToBigDecimalOnOverflow() {
+        assertParity(new BigDecimal("99999999999.99999999"), new BigDecimal("999999999999999.9999"), new BigDecimal("1"));
+    }
+
+    @Test
+    void toUnitsRoundsToColumnScale() {
+        assertThat(ValuationKernel.toUnits(new BigDecimal("10.5"), ValuationKernel.QUANTITY_SCALE)).isEqualTo(1_050_000_000L);
+        assertThat(ValuationKernel.toUnits(new BigDecimal("150.12345"), ValuationKernel.PRICE_SCALE)).isEqualTo(1_501_235L);
+        assertThat(ValuationKernel.toUnits(new BigDecimal("-0.00005"), ValuationKernel.PRICE_SCALE)).isEqualTo(-1L);
+    }
+
+    @Test
+    void valueRoundsNegativeQuantitiesAwayFromZero() {
+        long quantity = ValuationKernel.toUnits(new BigDecimal("-0.00005"), ValuationKernel.QUANTITY_SCALE);
+        long price = ValuationKernel.toUnits(BigDecimal.ONE, ValuationKernel.PRICE_SCALE);
+
+        assertThat(ValuationKernel.value(quantity, price)).isEqualTo(-1L);
+    }
+
+    @Test
+    void valueThrowsWhenProductOverflows() {
+        assertThatThrownBy(() -> ValuationKernel.value(Long.MAX_VALUE, 1_000_000_000L))
+            .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void percentOfRejectsZeroCostBasis() {
+        assertThatThrownBy(() -> ValuationKernel.percentOf(1L, 0L))
+            .isInstanceOf(ArithmeticException.class);
+    }
+
+    private static void assertParity(BigDecimal quantity, BigDecimal price, BigDecimal averageCost) {
+        Holding holding = new Holding("user", "SYM", quantity, averageCost, AssetType.STOCK);
+        holding.updateMarketValue(price);
+
+        Expected expected = Expected.of(quantity, price, averageCost);
+        String position = quantity + " @ " + price + " (cost " + averageCost + ")";
+        // equals, not compareTo: the scale is part of the contract for the DTOs
+        assertThat(holding.getMarketValue()).as("market value of %s", position).isEqualTo(expected.marketValue);
+        assertThat(holding.getUnrealizedPnL()).as("P&L of %s", position).isEqualTo(expected.unrealizedPnL);
+        assertThat(holding.getUnrealizedPnLPercent()).as("P&L percent of %s", position).isEqualTo(expected.unrealizedPnLPercent);
+    }
+
+    // The BigDecimal implementation the kernel replaces, kept verbatim as the reference
+    private record Expected(BigDecimal marketValue, BigDecimal unrealizedPnL, BigDecimal unrealizedPnLPercent) {
+
+        static Expected of(BigDecimal quantity, BigDecimal newPrice, BigDecimal averageCost) {
+            BigDecimal marketValue = quantity.multiply(newPrice).setScale(4, RoundingMode.HALF_UP);
+
+            BigDecimal costBasis = quantity.multiply(averageCost).setScale(4, RoundingMode.HALF_UP);
+            BigDecimal unrealizedPnL = marketValue.subtract(costBasis).setScale(4, RoundingMode.HALF_UP);
+
+            BigDecimal unrealizedPnLPercent;
+            if (costBasis.compareTo(BigDecimal.ZERO) != 0) {
+                unrealizedPnLPercent = unrealizedPnL
+                    .divide(costBasis, 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100))
+                    .setScale(4, RoundingMode.HALF_UP);
+            } else {
+                unrealizedPnLPercent = BigDecimal.ZERO;
+            }
+            return new Expected(marketValue, unrealizedPnL, unrealizedPnLPercent);
+        }
+    }
+}
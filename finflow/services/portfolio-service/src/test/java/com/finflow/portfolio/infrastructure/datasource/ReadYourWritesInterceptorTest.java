@@ -0,0 +1,66 @@
+package com.finflow.portfolio.infrastructure.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Reads after a write to a user go to the primary for every client of that
+ * user, not only the one holding the cookie.
+ */
+class ReadYourWritesInterceptorTest {
+
+    private final ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(Duration.ofSeconds(5));
+
+    @AfterEach
+    void unpin() {
+        ReplicaRoutingDataSource.unpin();
+    }
+
+    @Test
+    void pinsReadsOfAUserWrittenFromAnotherClient() {
+        handle(request("POST", "user-1"));
+
+        // Another device, without the cookie
+        assertThat(handle(request("GET", "user-1"))).isTrue();
+        assertThat(handle(request("GET", "user-2"))).isFalse();
+    }
+
+    @Test
+    void pinsReadsOfTheClientHoldingTheCookie() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request("PUT", null), response, null);
+        ReplicaRoutingDataSource.unpin();
+
+        MockHttpServletRequest read = request("GET", "user-2");
+        read.setCookies(response.getCookie(ReadYourWritesInterceptor.COOKIE_NAME));
+        assertThat(handle(read)).isTrue();
+        assertThat(handle(request("GET", null))).isFalse();
+    }
+
+    /**
+     * Run the request through preHandle and report whether it was pinned to the primary.
+     */
+    private boolean handle(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        boolean pinned = ReplicaRoutingDataSource.isPinnedToPrimary();
+        interceptor.afterCompletion(request, response, null, null);
+        return pinned;
+    }
+
+    private static MockHttpServletRequest request(String method, String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/holdings");
+        if (userId != null) {
+            request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("userId", userId));
+        }
+        return request;
+    }
+}
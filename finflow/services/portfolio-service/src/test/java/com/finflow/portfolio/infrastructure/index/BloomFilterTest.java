@@ -0,0 +1,57 @@
+package com.finflow.portfolio.infrastructure.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The Bloom filter never misses an added value and stays near the
+ * false-positive rate it was sized for.
+ */
+class BloomFilterTest {
+
+    private static final int VALUES = 100_000;
+
+    @Test
+    void containsEveryAddedValue() {
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        for (int i = 0; i < VALUES; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        for (int i = 0; i < VALUES; i++) {
+            assertThat(filter.mightContain("user" + i + "@example.com")).isTrue();
+        }
+    }
+
+    @Test
+    void staysNearTheFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        for (int i = 0; i < VALUES; i++) {
+            filter.add("user" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < VALUES; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / VALUES).isLessThan(0.015);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+
+        assertThat(filter.mightContain("anyone")).isFalse();
+    }
+
+    @Test
+    void rejectsImpossibleRates() {
+        assertThatThrownBy(() -> new BloomFilter(VALUES, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(VALUES, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,100 @@
+package com.finflow.portfolio.infrastructure.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ranking of the trigram index and parity with the case-insensitive
+ * substring match of the LIKE query it replaces.
+ */
+class TrigramIndexTest {
+
+    @Test
+    void ranksUsernameMatchesBeforeEmailMatches() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(new IndexedUser("1", "zed", "alice.smith@example.com"));
+        index.put(new IndexedUser("2", "malice", "m@example.com"));
+        index.put(new IndexedUser("3", "alice_w", "w@example.com"));
+        index.put(new IndexedUser("4", "Alice", "a@example.com"));
+        index.put(new IndexedUser("5", "bob", "alice@example.com"));
+
+        TrigramIndex.Matches matches = index.search("ALICE", 0, 10);
+
+        assertThat(matches.userIds()).containsExactly("4", "3", "2", "5", "1");
+        assertThat(matches.total()).isEqualTo(5);
+    }
+
+    @Test
+    void pagesThroughRankedMatches() {
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < 30; i++) {
+            index.put(new IndexedUser(String.valueOf(i), String.format("trader%02d", i), i + "@example.com"));
+        }
+
+        TrigramIndex.Matches page = index.search("trader", 10, 5);
+
+        assertThat(page.userIds()).containsExactly("10", "11", "12", "13", "14");
+        assertThat(page.total()).isEqualTo(30);
+        assertThat(index.search("trader", 40, 5).userIds()).isEmpty();
+    }
+
+    @Test
+    void followsUpdatesAndRemovals() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(new IndexedUser("1", "oldname", "one@example.com"));
+        index.put(new IndexedUser("2", "another", "two@example.com"));
+
+        index.put(new IndexedUser("1", "newname", "one@example.com"));
+        index.remove("2");
+
+        assertThat(index.search("oldname", 0, 10).total()).isZero();
+        assertThat(index.search("newname", 0, 10).userIds()).containsExactly("1");
+        assertThat(index.search("another", 0, 10).total()).isZero();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsTermsWithoutATrigram() {
+        TrigramIndex index = new TrigramIndex();
+
+        assertThatThrownBy(() -> index.search("ab", 0, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void matchesSubstringScan() {
+        Random random = new Random(42);
+        TrigramIndex index = new TrigramIndex();
+        List<IndexedUser> users = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            IndexedUser user = new IndexedUser(String.valueOf(i), randomWord(random, 4, 10),
+                randomWord(random, 3, 8) + "@" + randomWord(random, 3, 6) + ".com");
+            users.add(user);
+            index.put(user);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            String term = randomWord(random, 3, 4);
+            long expected = users.stream()
+                .filter(user -> user.username().contains(term) || user.email().contains(term))
+                .count();
+
+            assertThat(index.search(term.toUpperCase(Locale.ROOT), 0, 20).total()).as(term).isEqualTo(expected);
+        }
+    }
+
+    private static String randomWord(Random random, int minLength, int maxLength) {
+        StringBuilder word = new StringBuilder();
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(6)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package com.finflow.portfolio.infrastructure.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+
+import com.finflow.portfolio.application.RevaluationService;
+import com.finflow.portfolio.infrastructure.kafka.PriceTickConsumer.TimedPrice;
+import com.finflow.portfolio.infrastructure.kafka.event.PriceTickEvent;
+import com.finflow.portfolio.infrastructure.valuation.ValuationWriteBehindBuffer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Conflation keeps the latest tick per symbol by event time, not by where the
+ * tick sits in the polled batch.
+ */
+class PriceTickConsumerTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-05T14:30:00Z");
+
+    @Test
+    void keepsTheLatestTickAcrossPartitions() {
+        // Partition 1 is behind: its older tick for AAPL comes after partition 0's newer one
+        Map<String, TimedPrice> latest = PriceTickConsumer.conflate(List.of(
+            record(0, 10, tick("AAPL", "101", T0.plusSeconds(2))),
+            record(0, 11, tick("MSFT", "400", T0.plusSeconds(1))),
+            record(1, 7, tick("aapl", "100", T0)),
+            record(1, 8, tick("MSFT", "401", T0.plusSeconds(3)))));
+
+        assertThat(latest.get("AAPL").price()).isEqualByComparingTo("101");
+        assertThat(latest.get("MSFT").price()).isEqualByComparingTo("401");
+    }
+
+    @Test
+    void fallsBackToTheRecordTimestamp() {
+        Map<String, TimedPrice> latest = PriceTickConsumer.conflate(List.of(
+            record(0, 1, T0.plusSeconds(5), tick("AAPL", "101", null)),
+            record(1, 1, T0.plusSeconds(1), tick("AAPL", "100", null))));
+
+        assertThat(latest.get("AAPL").price()).isEqualByComparingTo("101");
+        assertThat(latest.get("AAPL").time()).isEqualTo(T0.plusSeconds(5));
+    }
+
+    @Test
+    void laterRecordWinsOnEqualTimes() {
+        Map<String, TimedPrice> latest = PriceTickConsumer.conflate(List.of(
+            record(0, 1, tick("AAPL", "100", T0)),
+            record(0, 2, tick("AAPL", "102", T0))));
+
+        assertThat(latest.get("AAPL").price()).isEqualByComparingTo("102");
+    }
+
+    @Test
+    void dropsTicksOlderThanAnEarlierPoll() {
+        RevaluationService revaluationService = mock(RevaluationService.class);
+        ValuationWriteBehindBuffer writeBehindBuffer = mock(ValuationWriteBehindBuffer.class);
+        when(writeBehindBuffer.offer(anyMap())).thenReturn(true);
+        PriceTickConsumer consumer = new PriceTickConsumer(
+            revaluationService, writeBehindBuffer, new SimpleMeterRegistry());
+        Consumer<?, ?> kafkaConsumer = mock(Consumer.class);
+
+        consumer.onPriceTicks(List.of(record(0, 1, tick("AAPL", "101", T0.plusSeconds(2)))), kafkaConsumer);
+        verify(writeBehindBuffer).offer(Map.of("AAPL", new BigDecimal("101")));
+
+        // A lagging partition delivers an older AAPL tick in the next poll
+        consumer.onPriceTicks(List.of(
+            record(1, 1, tick("AAPL", "100", T0)),
+            record(1, 2, tick("MSFT", "400", T0))), kafkaConsumer);
+        verify(writeBehindBuffer).offer(Map.of("MSFT", new BigDecimal("400")));
+
+        consumer.onPriceTicks(List.of(record(1, 3, tick("AAPL", "99", T0.plusSeconds(1)))), kafkaConsumer);
+        verify(writeBehindBuffer, never()).offer(Map.of("AAPL", new BigDecimal("99")));
+        verify(revaluationService, never()).revalue(anyMap());
+    }
+
+    private static PriceTickEvent tick(String symbol, String price, Instant timestamp) {
+        return new PriceTickEvent(symbol, new BigDecimal(price), timestamp);
+    }
+
+    private static ConsumerRecord<String, PriceTickEvent> record(int partition, long offset, PriceTickEvent tick) {
+        return record(partition, offset, T0, tick);
+    }
+
+    private static ConsumerRecord<String, PriceTickEvent> record(int partition, long offset, Instant recordTime,
+                                                                 PriceTickEvent tick) {
+        return new ConsumerRecord<>("market.price.ticks", partition, offset, recordTime.toEpochMilli(),
+            TimestampType.CREATE_TIME, -1, -1, tick.symbol(), tick, new RecordHeaders(), Optional.empty());
+    }
+}
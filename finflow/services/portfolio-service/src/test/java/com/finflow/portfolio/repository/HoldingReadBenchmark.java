@@ -0,0 +1,144 @@
+package com.finflow.portfolio.repository;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finflow.portfolio.dto.response.HoldingResponse;
+import com.finflow.portfolio.dto.response.PortfolioSummaryResponse;
+import com.finflow.portfolio.infrastructure.kafka.PortfolioEventProducer;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Time and heap allocation of the holding and summary reads when they load
+ * entities and map them to responses, as they did, and when they select
+ * straight into the response records through constructor projections.
+ *
+ * Not part of the regular test run (the class name does not end in Test). Run with
+ * <pre>mvn test -Dtest=HoldingReadBenchmark -Dsurefire.failIfNoSpecifiedTests=false</pre>
+ *
+ * Each read runs in its own read-only transaction with the second-level cache
+ * emptied first, and only the read is measured. Runs against the in-memory H2
+ * database, so the numbers compare the two approaches with each other rather
+ * than predict PostgreSQL's.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "app.kafka.price-ticks.enabled=false",
+    "app.portfolio.history.snapshot-interval-ms=3600000",
+    "app.portfolio.history.rollup-interval-ms=3600000",
+    "app.index.holdings.verify-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+class HoldingReadBenchmark {
+
+    private static final int HOLDINGS = 1_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int ITERATIONS = 300;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @MockBean
+    private PortfolioEventProducer eventProducer;
+
+    @Test
+    void compareEntityAndProjectionReads() throws Exception {
+        String userId = seed();
+        PageRequest page = PageRequest.of(0, PAGE_SIZE);
+
+        System.out.printf("%-22s %-11s %10s %10s%n", "read", "via", "us/op", "KiB/op");
+        for (int round = 0; round < 2; round++) {
+            // The first round warms up the JIT and is not reported
+            boolean report = round == 1;
+            run("holdings by user", "entities", report, () -> holdingRepository.findByUserId(userId).stream()
+                .map(HoldingResponse::from)
+                .toList());
+            run("holdings by user", "projection", report, () -> holdingRepository.findResponsesByUserId(userId));
+            run("page of " + PAGE_SIZE, "entities", report, () -> holdingRepository.findByUserId(userId, page)
+                .map(HoldingResponse::from));
+            run("page of " + PAGE_SIZE, "projection", report, () -> holdingRepository.findResponsePageByUserId(userId, page));
+            run("portfolio summary", "entities", report, () -> portfolioRepository.findByUser_Id(userId)
+                .map(PortfolioSummaryResponse::from));
+            run("portfolio summary", "projection", report, () -> portfolioRepository.findSummaryByUserId(userId));
+        }
+    }
+
+    private void run(String read, String via, boolean report, Supplier<Object> query) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        long nanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            entityManagerFactory.getCache().evictAll();
+            long[] measured = transaction.execute(status -> {
+                long startBytes = THREADS.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                query.get();
+                return new long[] {System.nanoTime() - start, THREADS.getCurrentThreadAllocatedBytes() - startBytes};
+            });
+            nanos += measured[0];
+            bytes += measured[1];
+        }
+        if (report) {
+            System.out.printf("%-22s %-11s %,10d %,10d%n", read, via, nanos / ITERATIONS / 1_000,
+                bytes / ITERATIONS / 1_024);
+        }
+    }
+
+    private String seed() throws Exception {
+        String userId = postForId("/api/users",
+            "{\"username\":\"benchmark\",\"email\":\"benchmark@example.com\",\"password\":\"password123\"}");
+        postForId("/api/portfolios/user/" + userId, "{\"name\":\"main\",\"initialCashBalance\":100000}");
+        String holdings = IntStream.range(0, HOLDINGS)
+            .mapToObj(i -> "{\"symbol\":\"BM" + i + "\",\"quantity\":1.5,\"averageCost\":10,\"assetType\":\"STOCK\"}")
+            .collect(Collectors.joining("\n"));
+        mockMvc.perform(post("/api/holdings/user/" + userId + "/import")
+                .contentType("application/x-ndjson")
+                .content(holdings))
+            .andExpect(status().isCreated());
+        return userId;
+    }
+
+    private String postForId(String path, String body) throws Exception {
+        String response = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asText();
+    }
+}
@@ -0,0 +1,301 @@
+package com.finflow.portfolio.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import com.finflow.portfolio.domain.SnapshotResolution;
+import com.finflow.portfolio.infrastructure.history.SnapshotPartitions;
+import com.finflow.portfolio.infrastructure.kafka.PortfolioEventProducer;
+
+/**
+ * The Flyway migrations against PostgreSQL 15, under the postgres profile.
+ *
+ * The context only starts if Hibernate validates every entity against the
+ * migrated schema (spring.jpa.hibernate.ddl-auto=validate), so a column type
+ * or name that drifts from its mapping fails here. The plan cases then load
+ * {@value #USERS} users with {@value #HOLDINGS_PER_USER} holdings each and
+ * check that the hot queries use the index V2 creates for them; each plan is
+ * printed. infrastructure/database/explain-indexes.sql checks the same plans
+ * at a larger scale. managesDayPartitions covers the day partitions of
+ * portfolio_value_snapshots that V4 and SnapshotPartitions manage.
+ *
+ * Runs against a PostgreSQL 15 container, or against an existing scratch
+ * database, which it fills with test data, given as
+ * <pre>mvn test -Dtest=PostgresSchemaTest -Dpostgres.test.url=jdbc:postgresql://localhost:5432/schema_test
+ *     -Dpostgres.test.username=postgres -Dpostgres.test.password=</pre>
+ * Skipped when neither is available.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "app.kafka.price-ticks.enabled=false",
+    // Keep background jobs off the seeded tables
+    "app.portfolio.history.snapshot-interval-ms=3600000",
+    "app.portfolio.history.rollup-interval-ms=3600000",
+    "app.index.holdings.verify-interval-ms=3600000"
+})
+@ActiveProfiles("postgres")
+@EnabledIf("postgresAvailable")
+class PostgresSchemaTest {
+
+    private static final int USERS = 20_000;
+    private static final int HOLDINGS_PER_USER = 20;
+    // The keyset scroll is for users with long holding lists
+    private static final int HOLDINGS_OF_WIDE_USER = 5_000;
+
+    private static final String EXTERNAL_URL = System.getProperty("postgres.test.url");
+
+    static boolean postgresAvailable() {
+        return EXTERNAL_URL != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_URL != null) {
+            registry.add("spring.datasource.url", () -> EXTERNAL_URL);
+            registry.add("spring.datasource.username", () -> System.getProperty("postgres.test.username", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getProperty("postgres.test.password", ""));
+            return;
+        }
+        // Shared by every case; Testcontainers removes it when the JVM exits
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+        postgres.start();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PortfolioValueSnapshotRepository snapshotRepository;
+
+    @MockBean
+    private PortfolioEventProducer eventProducer;
+
+    // Set once the data set is loaded; the container and context are shared by every case
+    private static String userId;
+    private static String wideUserId;
+
+    /**
+     * A hot query and the index its plan must use. The SQL may reference
+     * {userId} and {wideUserId}. With noSort, the index must also deliver the order.
+     */
+    record Plan(String index, String sql, boolean noSort) {
+
+        static Plan of(String index, String sql) {
+            return new Plan(index, sql, false);
+        }
+
+        static Plan ordered(String index, String sql) {
+            return new Plan(index, sql, true);
+        }
+
+        @Override
+        public String toString() {
+            return index;
+        }
+    }
+
+    static Stream<Plan> plans() {
+        return Stream.of(
+            Plan.of("uk_portfolio_user", "SELECT p.id FROM portfolios p WHERE p.user_id = '{userId}'"),
+            Plan.ordered("idx_portfolio_total_value", "SELECT * FROM portfolios p ORDER BY p.total_value DESC LIMIT 20"),
+            Plan.of("idx_holding_portfolio", "SELECT count(*) FROM holdings h WHERE h.portfolio_id = "
+                + "(SELECT p.id FROM portfolios p WHERE p.user_id = '{userId}')"),
+            Plan.of("idx_holding_symbol", "SELECT h.id, h.quantity, h.average_cost FROM holdings h WHERE h.symbol = 'SYM42'"),
+            Plan.ordered("idx_holding_user_symbol", "SELECT * FROM holdings h WHERE h.user_id = '{wideUserId}' "
+                + "AND (h.symbol, h.id) > ('SYM0', '00000000-0000-0000-0000-000000000000') ORDER BY h.symbol, h.id LIMIT 20"),
+            Plan.ordered("idx_holding_user_market_value",
+                "SELECT * FROM holdings h WHERE h.user_id = '{userId}' ORDER BY h.market_value DESC LIMIT 10"),
+            Plan.ordered("idx_holding_user_pnl",
+                "SELECT * FROM holdings h WHERE h.user_id = '{userId}' ORDER BY h.unrealized_pnl DESC LIMIT 10"),
+            Plan.of("idx_external_account_user",
+                "SELECT * FROM external_accounts ea WHERE ea.user_id = '{userId}' AND ea.platform = 'ALPACA'"),
+            Plan.ordered("idx_external_account_status_created", "SELECT * FROM external_accounts ea "
+                + "WHERE ea.status = 'DISCONNECTED' ORDER BY ea.created_at, ea.id LIMIT 20"),
+            Plan.of("idx_external_account_ready_to_sync",
+                "SELECT * FROM external_accounts ea WHERE ea.status = 'CONNECTED' AND ea.sync_enabled = true"),
+            Plan.of("idx_external_account_token_expiry", "SELECT * FROM external_accounts ea "
+                + "WHERE ea.token_expires_at < now() + interval '1 day' AND ea.token_expires_at > now()"),
+            // V4 partitions the table; the DAILY partition holds its copy of idx_snapshot_resolution_bucket
+            Plan.of("portfolio_value_snapshots_daily_resolution_bucket_start_idx",
+                "SELECT max(s.bucket_start) FROM portfolio_value_snapshots s WHERE s.resolution = 'DAILY'"),
+            Plan.of("quotes_pkey", "SELECT q.price FROM quotes q WHERE q.symbol = 'SYM42'"));
+    }
+
+    @BeforeEach
+    void seed() {
+        if (userId != null) {
+            return;
+        }
+        jdbcTemplate.update("""
+            INSERT INTO users (id, email, username, password_hash, created_at, updated_at)
+            SELECT gen_random_uuid(), 'schema' || n || '@test', 'schema' || n, 'x', now(), now()
+            FROM generate_series(1, ?) n""", USERS);
+        jdbcTemplate.update("""
+            INSERT INTO portfolios (id, user_id, name, total_value, cash_balance, buying_power,
+                                    total_gain_loss, total_cost_basis, created_at, updated_at)
+            SELECT gen_random_uuid(), u.id, 'main', (random() * 1000000)::numeric(19,4), 1000, 1000, 0, 0, now(), now()
+            FROM users u""");
+        jdbcTemplate.update("""
+            INSERT INTO holdings (id, portfolio_id, user_id, symbol, quantity, average_cost, current_price,
+                                  market_value, unrealized_pnl, unrealized_pnl_percent, asset_type, created_at, updated_at)
+            SELECT gen_random_uuid(), p.id, p.user_id, 'SYM' || (h * 37 + abs(hashtext(p.id::text)) % 2000) % 2000,
+                   10, 100, 100 + h, (10 * (100 + h))::numeric(19,4), (10 * h)::numeric(19,4), h,
+                   CASE WHEN h % 5 = 0 THEN 'CRYPTO' ELSE 'STOCK' END, now(), now()
+            FROM portfolios p, generate_series(1, ?) h""", HOLDINGS_PER_USER);
+        jdbcTemplate.update("""
+            INSERT INTO holdings (id, portfolio_id, user_id, symbol, quantity, average_cost, current_price,
+                                  market_value, unrealized_pnl, unrealized_pnl_percent, asset_type, created_at, updated_at)
+            SELECT gen_random_uuid(), p.id, p.user_id, 'WIDE' || h, 10, 100, 100, 1000, 0, 0, 'STOCK', now(), now()
+            FROM (SELECT * FROM portfolios ORDER BY id LIMIT 1) p, generate_series(1, ?) h""", HOLDINGS_OF_WIDE_USER);
+        jdbcTemplate.update("""
+            INSERT INTO external_accounts (id, user_id, platform, account_name, status, sync_enabled,
+                                           last_sync_at, token_expires_at, created_at, updated_at)
+            SELECT gen_random_uuid(), u.id, 'ALPACA', 'schema',
+                   CASE WHEN random() < 0.05 THEN 'CONNECTED' ELSE 'DISCONNECTED' END,
+                   random() < 0.8, now() - (random() * interval '7 days'),
+                   CASE WHEN random() < 0.3 THEN now() + (random() * interval '30 days') END,
+                   now() - (random() * interval '365 days'), now()
+            FROM users u""");
+        jdbcTemplate.update("""
+            INSERT INTO portfolio_value_snapshots (portfolio_id, resolution, bucket_start, total_value,
+                                                   low_value, high_value, total_gain_loss, samples)
+            SELECT p.id, 'DAILY', date_trunc('day', now()) - d * interval '1 day', p.total_value,
+                   p.total_value, p.total_value, 0, 1
+            FROM (SELECT * FROM portfolios LIMIT 2000) p, generate_series(1, 30) d""");
+        jdbcTemplate.update("""
+            INSERT INTO quotes (symbol, price, observed_at)
+            SELECT 'SYM' || n, 100, now() FROM generate_series(0, 1999) n""");
+        jdbcTemplate.execute("ANALYZE");
+        wideUserId = jdbcTemplate.queryForObject(
+            "SELECT user_id::text FROM portfolios ORDER BY id LIMIT 1", String.class);
+        userId = jdbcTemplate.queryForObject(
+            "SELECT user_id::text FROM portfolios ORDER BY id OFFSET 1 LIMIT 1", String.class);
+    }
+
+    @Test
+    void appliesEveryMigration() {
+        // Hibernate has validated the entities against this schema by the time the context is up
+        assertThat(flyway.info().applied()).isNotEmpty();
+        assertThat(flyway.info().pending()).isEmpty();
+    }
+
+    @Test
+    void managesDayPartitions() {
+        // A fresh instance each time: the application's own has already prepared through today
+        Instant now = Instant.now();
+        Instant old = now.minus(Duration.ofDays(10));
+        Instant older = now.minus(Duration.ofDays(20));
+
+        // Partitions created in a transaction that rolls back are created again by the next call
+        SnapshotPartitions partitions = new SnapshotPartitions(jdbcTemplate);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            partitions.prepare(old);
+            status.setRollbackOnly();
+        });
+        assertThat(partitionExists(rawDayPartition(old))).isFalse();
+        partitions.prepare(old);
+        insertRaw(old);
+        assertThat(partitionOf(old)).isEqualTo(rawDayPartition(old));
+
+        // Rows written before their day's partition existed move into it
+        insertRaw(older);
+        assertThat(partitionOf(older)).isEqualTo("portfolio_value_snapshots_raw_default");
+        new SnapshotPartitions(jdbcTemplate).prepare(older);
+        assertThat(partitionOf(older)).isEqualTo(rawDayPartition(older));
+
+        // Both four-day runs are past a two-day retention; today's partition is not
+        assertThat(partitions.dropBefore(SnapshotResolution.RAW, now.minus(Duration.ofDays(2)))).isEqualTo(8);
+        assertThat(jdbcTemplate.queryForObject("""
+            SELECT count(*) FROM portfolio_value_snapshots
+            WHERE resolution = 'RAW' AND bucket_start IN (?::timestamptz, ?::timestamptz)""",
+            Long.class, old.toString(), older.toString())).isZero();
+        assertThat(partitionExists(rawDayPartition(now))).isTrue();
+    }
+
+    @Test
+    void rollsUpABucketOnce() {
+        Instant bucket = SnapshotResolution.bucketStart(Instant.now(), Duration.ofHours(1)).minus(Duration.ofHours(1));
+        insertRaw(bucket);
+
+        // A second instance rolling up the same bucket finds it done
+        assertThat(rollUpFiveMinutes(bucket)).isEqualTo(10);
+        assertThat(rollUpFiveMinutes(bucket)).isZero();
+    }
+
+    private int rollUpFiveMinutes(Instant bucket) {
+        Integer rows = new TransactionTemplate(transactionManager).execute(status ->
+            snapshotRepository.rollUp("RAW", "FIVE_MINUTES", bucket, bucket.plus(Duration.ofMinutes(5))));
+        return rows;
+    }
+
+    private void insertRaw(Instant bucketStart) {
+        jdbcTemplate.update("""
+            INSERT INTO portfolio_value_snapshots (portfolio_id, resolution, bucket_start, total_value,
+                                                   low_value, high_value, total_gain_loss, samples)
+            SELECT p.id, 'RAW', ?::timestamptz, 1, 1, 1, 0, 1 FROM (SELECT id FROM portfolios LIMIT 10) p""",
+            bucketStart.toString());
+    }
+
+    private String partitionOf(Instant bucketStart) {
+        return jdbcTemplate.queryForObject("""
+            SELECT DISTINCT tableoid::regclass::text FROM portfolio_value_snapshots
+            WHERE resolution = 'RAW' AND bucket_start = ?::timestamptz""", String.class, bucketStart.toString());
+    }
+
+    private boolean partitionExists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name));
+    }
+
+    private static String rawDayPartition(Instant at) {
+        return "portfolio_value_snapshots_raw_p"
+            + LocalDate.ofInstant(at, ZoneOffset.UTC).format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("plans")
+    void usesItsIndex(Plan plan) {
+        String sql = plan.sql().replace("{userId}", userId).replace("{wideUserId}", wideUserId);
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+        String text = String.join("\n", lines);
+        System.out.printf("-- %s%n%s%n%n", plan.index(), text);
+
+        assertThat(text).as("plan for %s", plan.index()).contains(plan.index()).doesNotContain("Seq Scan");
+        if (plan.noSort()) {
+            assertThat(text).as("plan for %s", plan.index()).doesNotContain("Sort");
+        }
+    }
+}